@@ -0,0 +1,26 @@
+package sim;
+
+/**
+ * Building sizes the benchmarks run with.
+ *
+ * A size is written as floors x lifts, e.g. "13x6". All lifts but
+ * one are synchronized, so the dispatcher has the most work to do.
+ */
+final class Buildings {
+
+  // From today's largest building up to a tower
+  static final String SMALL  = "13x6";
+  static final String MEDIUM = "50x16";
+  static final String LARGE  = "100x32";
+  static final String TOWER  = "200x64";
+
+  private Buildings() {
+  }
+
+  static BuildingConfig parse(String size) {
+    String[] parts = size.split("x");
+    int floors = Integer.parseInt(parts[0]);
+    int lifts  = Integer.parseInt(parts[1]);
+    return BuildingConfig.newConfig(floors, Math.min(3, floors / 10), lifts - 1, 1);
+  }
+}
@@ -0,0 +1,55 @@
+package sim;
+
+import static constants.CommonConstant.DIRECTION_UP;
+import static constants.CommonConstant.DIRECTION_DOWN;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Find the hall button of a lift on a floor, the lookup every
+ * button light change goes through.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ButtonBenchmark {
+
+  private static final int LOOKUPS = 1024; // power of two, cycled by a mask
+
+  @Param({Buildings.SMALL, Buildings.MEDIUM, Buildings.LARGE, Buildings.TOWER})
+  public String building;
+
+  private ButtonPanel buttons;
+  private int[] lifts;
+  private int[] floors;
+  private int[] directions;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    BuildingConfig config = Buildings.parse(building);
+    buttons = new ButtonPanel(config);
+
+    Random random = new Random(42);
+    lifts = new int[LOOKUPS];
+    floors = new int[LOOKUPS];
+    directions = new int[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      lifts[i] = random.nextInt(config.getLiftCount());
+      floors[i] = config.toFloor(random.nextInt(config.getFloors()));
+      directions[i] = random.nextBoolean() ? DIRECTION_UP : DIRECTION_DOWN;
+    }
+  }
+
+  @Benchmark
+  public HallButton findButton() {
+    int i = next++ & (LOOKUPS - 1);
+    return buttons.get(lifts[i], floors[i], directions[i]);
+  }
+}
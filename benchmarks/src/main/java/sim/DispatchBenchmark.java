@@ -0,0 +1,64 @@
+package sim;
+
+import static constants.CommonConstant.DIRECTION_UP;
+import static constants.CommonConstant.DIRECTION_DOWN;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Pick a sync lift for a hall call, with lifts spread over the building
+ * the way a running simulation leaves them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+  private static final int CALLS = 1024; // power of two, cycled by a mask
+
+  @Param({Buildings.SMALL, Buildings.MEDIUM, Buildings.LARGE, Buildings.TOWER})
+  public String building;
+
+  @Param({"heuristic", "eta"})
+  public String strategy;
+
+  private DispatchStrategy scheduler;
+  private Set<Lift> syncLifts;
+  private int[] floors;
+  private int[] directions;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    BuildingConfig config = Buildings.parse(building);
+    scheduler = strategy.equals("eta") ? new EstimatedTimeScheduler() : new ElevatorScheduler();
+
+    // Let the building run for a while so the lifts are busy, with the
+    // same people in every fork so each one measures the same state
+    Simulation simulation = new Simulation(config, scheduler, 42L);
+    simulation.start();
+    simulation.advanceTo(10 * 60 * 1000L);
+    syncLifts = simulation.getController().getSyncLifts();
+
+    Random random = new Random(42);
+    floors = new int[CALLS];
+    directions = new int[CALLS];
+    for (int i = 0; i < CALLS; i++) {
+      floors[i] = config.toFloor(random.nextInt(config.getFloors()));
+      directions[i] = random.nextBoolean() ? DIRECTION_UP : DIRECTION_DOWN;
+    }
+  }
+
+  @Benchmark
+  public Lift pickBestSyncLift() {
+    int i = next++ & (CALLS - 1);
+    return scheduler.pickBestSyncLift(floors[i], directions[i], syncLifts);
+  }
+}
@@ -0,0 +1,39 @@
+package sim;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Draw the start and end floors of a new person, as a pair or
+ * as a trip code which needs no allocation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FloorPairBenchmark {
+
+  @Param({Buildings.SMALL, Buildings.MEDIUM, Buildings.LARGE, Buildings.TOWER})
+  public String building;
+
+  private FloorPair floorPair;
+
+  @Setup
+  public void setUp() {
+    floorPair = new FloorPair(Buildings.parse(building), new SplittableRandom(42));
+  }
+
+  @Benchmark
+  public int[] getPair() {
+    return floorPair.getPair();
+  }
+
+  @Benchmark
+  public int nextTrip() {
+    return floorPair.nextTrip(0.50, 0.05);
+  }
+}
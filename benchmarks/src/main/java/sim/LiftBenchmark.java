@@ -0,0 +1,85 @@
+package sim;
+
+import static constants.CommonConstant.DIRECTION_UP;
+import static constants.CommonConstant.DIRECTION_DOWN;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Decide where an idle or rising lift goes next.
+ *
+ * Every call puts the lift back at a floor with a fresh set of
+ * requests first, the reset benchmark measures that part alone.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LiftBenchmark {
+
+  private static final int PATTERNS = 256; // power of two, cycled by a mask
+  private static final int REQUESTS = 8;   // requests in each pattern
+
+  @Param({Buildings.SMALL, Buildings.MEDIUM, Buildings.LARGE, Buildings.TOWER})
+  public String building;
+
+  private EventClock clock;
+  private Lift lift;
+  private int[] startFloors;
+  private int[][] requestFloors;
+  private int[][] requestDirections;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    BuildingConfig config = Buildings.parse(building);
+    clock = new EventClock();
+    lift = new Lift("SYNC#1", 0, true, 1, config, clock, new ButtonPanel(config));
+
+    Random random = new Random(42);
+    startFloors = new int[PATTERNS];
+    requestFloors = new int[PATTERNS][REQUESTS];
+    requestDirections = new int[PATTERNS][REQUESTS];
+    for (int i = 0; i < PATTERNS; i++) {
+      startFloors[i] = config.toFloor(random.nextInt(config.getFloors()));
+      for (int j = 0; j < REQUESTS; j++) {
+        requestFloors[i][j] = config.toFloor(random.nextInt(config.getFloors()));
+        requestDirections[i][j] = random.nextBoolean() ? DIRECTION_UP : DIRECTION_DOWN;
+      }
+    }
+  }
+
+  /** Put the lift at the next start floor with the next requests */
+  private void nextPattern() {
+    int i = next++ & (PATTERNS - 1);
+    lift.reset(startFloors[i]);
+    for (int j = 0; j < REQUESTS; j++)
+      lift.addRequest(requestFloors[i][j], requestDirections[i][j]);
+    clock.clear();
+  }
+
+  @Benchmark
+  public int reset() {
+    nextPattern();
+    return lift.getNextStopFloor();
+  }
+
+  @Benchmark
+  public int handleLiftSuspend() {
+    nextPattern();
+    lift.handleLiftSuspend();
+    return lift.getNextStopFloor();
+  }
+
+  @Benchmark
+  public int handleGoingUp() {
+    nextPattern();
+    lift.handleGoingUp();
+    return lift.getNextStopFloor();
+  }
+}
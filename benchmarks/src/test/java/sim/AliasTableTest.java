@@ -0,0 +1,85 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * AliasTable draws each index as often as its weight says, within
+ * five standard deviations over a million seeded draws.
+ */
+public class AliasTableTest {
+  private static final int DRAWS = 1_000_000;
+
+  @Test
+  public void followsUnevenWeights() {
+    assertFrequencies(new double[] {1, 2, 3, 4, 10});
+  }
+
+  @Test
+  public void followsEqualWeights() {
+    assertFrequencies(new double[] {5, 5, 5, 5, 5, 5, 5});
+  }
+
+  @Test
+  public void followsSkewedWeights() {
+    assertFrequencies(new double[] {1000, 1, 0.5, 0.01, 250});
+  }
+
+  @Test
+  public void neverDrawsAZeroWeight() {
+    int[] counts = draw(new double[] {0, 3, 0, 1, 0}, DRAWS);
+    assertEquals(0, counts[0]);
+    assertEquals(0, counts[2]);
+    assertEquals(0, counts[4]);
+    assertFrequencies(new double[] {0, 3, 0, 1, 0});
+  }
+
+  @Test
+  public void alwaysDrawsASingleWeight() {
+    assertEquals(1000, draw(new double[] {0.25}, 1000)[0]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsNegativeWeights() {
+    new AliasTable(new double[] {1, -1, 2});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsOnlyZeros() {
+    new AliasTable(new double[] {0, 0});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsNoWeights() {
+    new AliasTable(new double[0]);
+  }
+
+  private static void assertFrequencies(double[] weights) {
+    double total = 0;
+    for (double weight : weights)
+      total += weight;
+
+    int[] counts = draw(weights, DRAWS);
+    for (int i = 0; i < weights.length; i++) {
+      double p = weights[i] / total;
+      double sigma = Math.sqrt(DRAWS * p * (1 - p));
+      double off = Math.abs(counts[i] - DRAWS * p);
+      assertTrue("index " + i + " drawn " + counts[i] + " times, expected " + DRAWS * p,
+                 off <= 5 * sigma + 1);
+    }
+  }
+
+  private static int[] draw(double[] weights, int draws) {
+    AliasTable table = new AliasTable(weights);
+    assertEquals(weights.length, table.size());
+    SplittableRandom random = new SplittableRandom(42);
+    int[] counts = new int[weights.length];
+    for (int i = 0; i < draws; i++)
+      counts[table.sample(random)]++;
+    return counts;
+  }
+}
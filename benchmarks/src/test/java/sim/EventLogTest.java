@@ -0,0 +1,207 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Whatever EventLog writes, EventLogReader reads back the same,
+ * including the values at the ends of the varint and zigzag ranges,
+ * logs larger than the buffers of both, and logs cut short.
+ */
+public class EventLogTest {
+  // Values around the length changes of a varint, and the ends of an int
+  private static final int[] EDGES = {
+    0, 1, -1, 63, -64, 64, -65, 127, 128, 8191, -8192, 8192, 16383, 16384,
+    Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE - 1, Integer.MIN_VALUE + 1,
+  };
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final BuildingConfig config = BuildingConfig.newConfig(130, 3, 31, 1);
+
+  @Test
+  public void readsBackTheBuilding() throws IOException {
+    Path file = folder.newFile().toPath();
+    new EventLog(file, config).close();
+
+    try (EventLogReader reader = new EventLogReader(file)) {
+      assertTrue(reader.matches(config));
+      assertFalse(reader.matches(BuildingConfig.newConfig(130, 2, 31, 1)));
+      assertFalse(reader.matches(BuildingConfig.newConfig(129, 3, 31, 1)));
+      assertFalse(reader.matches(BuildingConfig.newConfig(130, 3, 30, 1)));
+      assertFalse(reader.next());
+    }
+  }
+
+  @Test
+  public void readsBackEveryKindOfRecord() throws IOException {
+    Path file = folder.newFile().toPath();
+    try (EventLog log = new EventLog(file, config)) {
+      log.liftStart(0L, 3, -2);
+      log.arrival(10L, 1, 42, 1);
+      log.hallCall(10L, 5, 42, 2);
+      log.destinationCall(25L, -3, 128);
+      log.assignment(26L, 31, -3, 1);
+      log.stop(1000L, 31, -3);
+      log.doorsOpening(1000L, 31, -3);
+      log.doorsClosed(4800L, 31, -3);
+    }
+
+    try (EventLogReader reader = new EventLogReader(file)) {
+      assertRecord(reader, EventLog.LIFT_START, 0L, 3, -2, 0, 0, 0);
+      assertTrue(reader.isLiftStart());
+      assertRecord(reader, EventLog.ARRIVAL, 10L, 0, 1, 42, 0, 1);
+      assertTrue(reader.isArrival());
+      assertRecord(reader, EventLog.HALL_CALL, 10L, 5, 42, 0, 2, 0);
+      assertRecord(reader, EventLog.DESTINATION_CALL, 25L, 0, -3, 128, 0, 0);
+      assertRecord(reader, EventLog.ASSIGNMENT, 26L, 31, -3, 0, 1, 0);
+      assertRecord(reader, EventLog.STOP, 1000L, 31, -3, 0, 0, 0);
+      assertRecord(reader, EventLog.DOORS_OPENING, 1000L, 31, -3, 0, 0, 0);
+      assertRecord(reader, EventLog.DOORS_CLOSED, 4800L, 31, -3, 0, 0, 0);
+      assertFalse(reader.next());
+    }
+  }
+
+  @Test
+  public void keepsTheExtremesOfEveryField() throws IOException {
+    // Times jump by the edges of a varint too, up to a huge step
+    long[] times = {0L, 0L, 127L, 128L, 16511L, 16512L, 1L << 40, Long.MAX_VALUE / 2, Long.MAX_VALUE};
+
+    Path file = folder.newFile().toPath();
+    try (EventLog log = new EventLog(file, config)) {
+      int t = 0;
+      for (int a : EDGES) {
+        for (int b : EDGES) {
+          long time = times[Math.min(t++ / 40, times.length - 1)];
+          log.arrival(time, a, b, Math.abs(a % 2));
+          log.hallCall(time, a, b, Math.abs(b % 3));
+        }
+      }
+    }
+
+    try (EventLogReader reader = new EventLogReader(file)) {
+      int t = 0;
+      for (int a : EDGES) {
+        for (int b : EDGES) {
+          long time = times[Math.min(t++ / 40, times.length - 1)];
+          assertRecord(reader, EventLog.ARRIVAL, time, 0, a, b, 0, Math.abs(a % 2));
+          assertRecord(reader, EventLog.HALL_CALL, time, a, b, 0, Math.abs(b % 3), 0);
+        }
+      }
+      assertFalse(reader.next());
+    }
+  }
+
+  @Test
+  public void readsALogLargerThanTheBuffers() throws IOException {
+    Path file = folder.newFile().toPath();
+    Random random = new Random(42);
+    int records = 200_000;
+    try (EventLog log = new EventLog(file, config)) {
+      long time = 0L;
+      for (int i = 0; i < records; i++) {
+        time += random.nextInt(100_000);
+        log.stop(time, random.nextInt(32), random.nextInt(130) - 3);
+      }
+    }
+    assertTrue(Files.size(file) > 4 * 64 * 1024);
+
+    random = new Random(42);
+    try (EventLogReader reader = new EventLogReader(file)) {
+      long time = 0L;
+      for (int i = 0; i < records; i++) {
+        time += random.nextInt(100_000);
+        assertRecord(reader, EventLog.STOP, time, random.nextInt(32), random.nextInt(130) - 3, 0, 0, 0);
+      }
+      assertFalse(reader.next());
+    }
+  }
+
+  @Test
+  public void stopsAtTheLastWholeRecordOfACutLog() throws IOException {
+    Path file = folder.newFile().toPath();
+    try (EventLog log = new EventLog(file, config)) {
+      log.liftStart(0L, 3, -2);
+      log.arrival(10L, 1, 42, 1);
+      log.hallCall(Long.MAX_VALUE / 2, Integer.MAX_VALUE, Integer.MIN_VALUE, 2);
+    }
+    byte[] whole = Files.readAllBytes(file);
+    int lastRecord = whole.length - (1 + 9 + 5 + 5 + 1); // type, time, lift, floor, direction
+
+    // Cut anywhere inside the last record, down to its type alone
+    for (int length = lastRecord + 1; length < whole.length; length++) {
+      Files.write(file, Arrays.copyOf(whole, length));
+      try (EventLogReader reader = new EventLogReader(file)) {
+        assertRecord(reader, EventLog.LIFT_START, 0L, 3, -2, 0, 0, 0);
+        assertRecord(reader, EventLog.ARRIVAL, 10L, 0, 1, 42, 0, 1);
+        assertFalse(reader.isTruncated());
+        assertFalse("read a record cut at " + length, reader.next());
+        assertTrue(reader.isTruncated());
+        assertFalse(reader.next());
+        // The fields stay those of the last whole record
+        assertEquals(EventLog.ARRIVAL, reader.getType());
+        assertEquals(10L, reader.getTime());
+      }
+    }
+
+    // Cut between two records, nothing is missing
+    Files.write(file, Arrays.copyOf(whole, lastRecord));
+    try (EventLogReader reader = new EventLogReader(file)) {
+      assertTrue(reader.next());
+      assertTrue(reader.next());
+      assertFalse(reader.next());
+      assertFalse(reader.isTruncated());
+    }
+  }
+
+  @Test
+  public void rejectsACutBuilding() throws IOException {
+    Path file = folder.newFile().toPath();
+    new EventLog(file, config).close();
+    byte[] whole = Files.readAllBytes(file);
+
+    for (int length = 4; length < whole.length; length++) {
+      Files.write(file, Arrays.copyOf(whole, length));
+      try {
+        new EventLogReader(file).close();
+        fail("read a building cut at " + length);
+      }
+      catch (IOException e) {
+        assertTrue(e.getMessage(), e.getMessage().startsWith("Truncated"));
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsAnotherFile() throws IOException {
+    Path file = folder.newFile().toPath();
+    Files.write(file, "not a log at all".getBytes("US-ASCII"));
+    new EventLogReader(file).close();
+  }
+
+  private static void assertRecord(EventLogReader reader, byte type, long time,
+                                   int lift, int floor, int endFloor,
+                                   int direction, int appearSide) {
+    assertTrue("log ended early", reader.next());
+    assertEquals(type, reader.getType());
+    assertEquals(time, reader.getTime());
+    assertEquals(lift, reader.getLift());
+    assertEquals(floor, reader.getFloor());
+    assertEquals(endFloor, reader.getEndFloor());
+    assertEquals(direction, reader.getDirection());
+    assertEquals(appearSide, reader.getAppearSide());
+  }
+}
@@ -0,0 +1,68 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * FloorPair draws trips of every building that can be built, the
+ * smallest ones included, and follows the matrices a building brings.
+ */
+public class FloorPairTest {
+
+  @Test
+  public void drawsTripsInTheSmallestBuildings() {
+    int[][] sizes = {{2, 0}, {2, 1}, {3, 0}, {3, 1}, {3, 2}, {4, 3}};
+    for (int[] size : sizes) {
+      BuildingConfig config = BuildingConfig.newConfig(size[0], size[1], 2, 1);
+      FloorPair floorPair = new FloorPair(config, new SplittableRandom(42));
+      int throughGround = 0;
+      for (int i = 0; i < 1000; i++) {
+        int trip = floorPair.nextTrip(0.4, 0.2);
+        int start = floorPair.getStartFloor(trip);
+        int end = floorPair.getEndFloor(trip);
+        assertNotEquals(start, end);
+        assertTrue(config.toLevel(start) >= 0 && config.toLevel(start) < size[0]);
+        assertTrue(config.toLevel(end) >= 0 && config.toLevel(end) < size[0]);
+        if (start == 1 || end == 1)
+          throughGround++;
+      }
+      // Most trips come in or go out through the ground floor
+      assertTrue(throughGround > 500);
+      new Simulation(config, new EstimatedTimeScheduler(), 42L).start();
+    }
+  }
+
+  @Test
+  public void followsTheMatricesOfTheBuilding() {
+    BuildingConfig config = BuildingConfig.newConfig(10, 2, 2, 1);
+    double[][] incoming = new double[10][10];
+    double[][] outgoing = new double[10][10];
+    incoming[2][9] = 1.0;
+    outgoing[9][2] = 1.0;
+    config = config.withTrips(new TripMatrix(incoming, outgoing, new double[10][10]));
+
+    FloorPair floorPair = new FloorPair(config, new SplittableRandom(42));
+    for (int i = 0; i < 1000; i++) {
+      int trip = floorPair.nextTrip(0.5, 0.3);
+      int start = floorPair.getStartFloor(trip);
+      assertTrue(start == 1 || start == 8);
+      assertEquals(start == 1 ? 8 : 1, floorPair.getEndFloor(trip));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsMatricesWithoutIncomingTrips() {
+    new TripMatrix(new double[4][4], new double[][] {{0, 1, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}},
+                   new double[4][4]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsABuildingWithoutAGroundFloor() {
+    BuildingConfig.newConfig(3, 3, 2, 1);
+  }
+}
@@ -0,0 +1,147 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * FloorSet against a TreeSet, with the floors around the ends of the
+ * words in particular: 130 levels take three words, the last one
+ * holding two levels only.
+ */
+public class FloorSetTest {
+  private static final int FLOORS = 130;
+  private static final int[] EDGES = {0, 1, 62, 63, 64, 65, 126, 127, 128, 129};
+
+  private final BuildingConfig config = BuildingConfig.newConfig(FLOORS, 3, 2, 1);
+
+  private int floor(int level) {
+    return config.toFloor(level);
+  }
+
+  private FloorSet setOf(int... levels) {
+    FloorSet set = new FloorSet(config);
+    for (int level : levels)
+      set.add(floor(level));
+    return set;
+  }
+
+  @Test
+  public void addsAndRemovesOnEveryEdge() {
+    FloorSet set = new FloorSet(config);
+    for (int level : EDGES) {
+      set.add(floor(level));
+      assertTrue(set.contains(floor(level)));
+    }
+    assertEquals(EDGES.length, set.size());
+    assertFalse(set.contains(floor(61)));
+    assertFalse(set.contains(floor(66)));
+
+    for (int level : EDGES) {
+      set.remove(floor(level));
+      assertFalse(set.contains(floor(level)));
+    }
+    assertTrue(set.isEmpty());
+  }
+
+  @Test
+  public void firstAndLastSkipEmptyWords() {
+    assertEquals(floor(129), setOf(129).first());
+    assertEquals(floor(0), setOf(0).last());
+    assertEquals(floor(64), setOf(64, 128).first());
+    assertEquals(floor(63), setOf(0, 63).last());
+    assertEquals(FloorSet.NONE, new FloorSet(config).first());
+    assertEquals(FloorSet.NONE, new FloorSet(config).last());
+  }
+
+  @Test
+  public void nextAboveAndBelowCrossWords() {
+    FloorSet set = setOf(0, 63, 64, 129);
+    assertEquals(floor(63), set.nextAbove(floor(0)));
+    assertEquals(floor(64), set.nextAbove(floor(63)));
+    assertEquals(floor(129), set.nextAbove(floor(64)));
+    assertEquals(FloorSet.NONE, set.nextAbove(floor(129)));
+
+    assertEquals(floor(64), set.nextBelow(floor(129)));
+    assertEquals(floor(63), set.nextBelow(floor(64)));
+    assertEquals(floor(0), set.nextBelow(floor(63)));
+    assertEquals(FloorSet.NONE, set.nextBelow(floor(0)));
+  }
+
+  @Test
+  public void nearestTakesTheLowerOnATie() {
+    assertEquals(floor(62), setOf(62, 66).nearestTo(floor(64)));
+    assertEquals(floor(65), setOf(62, 65).nearestTo(floor(64)));
+    assertEquals(floor(63), setOf(63, 128).nearestTo(floor(64)));
+    assertEquals(floor(128), setOf(128).nearestTo(floor(0)));
+    assertEquals(FloorSet.NONE, new FloorSet(config).nearestTo(floor(64)));
+  }
+
+  @Test
+  public void addsAllAboveAndBelowAtEveryEdge() {
+    FloorSet full = new FloorSet(config);
+    for (int level = 0; level < FLOORS; level++)
+      full.add(floor(level));
+
+    for (int edge : EDGES) {
+      FloorSet above = new FloorSet(config);
+      above.addAllAbove(full, floor(edge));
+      assertEquals(FLOORS - 1 - edge, above.size());
+      assertEquals(edge == FLOORS - 1 ? FloorSet.NONE : floor(edge + 1), above.first());
+
+      FloorSet below = new FloorSet(config);
+      below.addAllBelow(full, floor(edge));
+      assertEquals(edge, below.size());
+      assertEquals(edge == 0 ? FloorSet.NONE : floor(edge - 1), below.last());
+    }
+  }
+
+  @Test
+  public void countsTheUnionAcrossWords() {
+    FloorSet a = setOf(0, 63);
+    FloorSet b = setOf(63, 64);
+    FloorSet c = setOf(127, 128, 129);
+    assertEquals(6, FloorSet.countUnion(a, b, c, floor(0), floor(129)));
+    assertEquals(2, FloorSet.countUnion(a, b, c, floor(63), floor(64)));
+    assertEquals(1, FloorSet.countUnion(a, b, c, floor(64), floor(126)));
+    assertEquals(3, FloorSet.countUnion(a, b, c, floor(127), floor(129)));
+    assertEquals(0, FloorSet.countUnion(a, b, c, floor(65), floor(126)));
+    assertEquals(0, FloorSet.countUnion(a, b, c, floor(64), floor(63)));
+  }
+
+  @Test
+  public void agreesWithATreeSet() {
+    Random random = new Random(42);
+    FloorSet set = new FloorSet(config);
+    TreeSet<Integer> expected = new TreeSet<>();
+
+    for (int i = 0; i < 20000; i++) {
+      // Mostly floors on an edge, the rest anywhere
+      int level = random.nextBoolean() ? EDGES[random.nextInt(EDGES.length)] : random.nextInt(FLOORS);
+      int floor = floor(level);
+      if (random.nextInt(3) == 0) {
+        set.remove(floor);
+        expected.remove(floor);
+      }
+      else {
+        set.add(floor);
+        expected.add(floor);
+      }
+
+      assertEquals(expected.size(), set.size());
+      assertEquals(orNone(expected.higher(floor)), set.nextAbove(floor));
+      assertEquals(orNone(expected.lower(floor)), set.nextBelow(floor));
+      assertEquals(expected.isEmpty() ? FloorSet.NONE : expected.first(), set.first());
+      assertEquals(expected.isEmpty() ? FloorSet.NONE : expected.last(), set.last());
+    }
+  }
+
+  private static int orNone(Integer floor) {
+    return floor == null ? FloorSet.NONE : floor;
+  }
+}
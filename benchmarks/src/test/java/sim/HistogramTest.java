@@ -0,0 +1,109 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Histogram counts small values exactly and larger ones within a
+ * sixteenth, from one thread or many.
+ */
+public class HistogramTest {
+
+  @Test
+  public void countsSmallValuesExactly() {
+    Histogram histogram = new Histogram();
+    for (long value = 0; value < 16; value++)
+      histogram.record(value);
+
+    assertEquals(16, histogram.getCount());
+    assertEquals(7.5, histogram.getMean(), 1e-12);
+    assertEquals(15, histogram.getMax());
+    for (int value = 0; value < 16; value++)
+      assertEquals(value, histogram.getPercentile((value + 1) * 100.0 / 16));
+  }
+
+  @Test
+  public void keepsPercentilesWithinASixteenth() {
+    Random random = new Random(42);
+    long[] values = new long[100_000];
+    Histogram histogram = new Histogram();
+    for (int i = 0; i < values.length; i++) {
+      values[i] = (long) Math.exp(random.nextDouble() * 30);
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+
+    for (double percent : new double[] {1, 10, 50, 90, 95, 99, 99.9, 100}) {
+      long exact = values[(int) Math.ceil(percent / 100.0 * values.length) - 1];
+      long estimate = histogram.getPercentile(percent);
+      assertTrue(percent + "%: " + estimate + " below " + exact, estimate >= exact);
+      assertTrue(percent + "%: " + estimate + " too far above " + exact,
+                 estimate <= exact + exact / 16);
+    }
+    assertEquals(values[values.length - 1], histogram.getMax());
+    assertEquals(values[values.length - 1], histogram.getPercentile(100));
+  }
+
+  @Test
+  public void keepsTheEndsOfTheRange() {
+    Histogram histogram = new Histogram();
+    histogram.record(-5L);
+    histogram.record(Long.MAX_VALUE);
+
+    assertEquals(2, histogram.getCount());
+    assertEquals(0L, histogram.getPercentile(50));
+    assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+    assertEquals(Long.MAX_VALUE, histogram.getMax());
+  }
+
+  @Test
+  public void readsZeroWhenEmpty() {
+    Histogram histogram = new Histogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0.0, histogram.getMean(), 0.0);
+    assertEquals(0L, histogram.getPercentile(50));
+  }
+
+  @Test
+  public void addsUpAnotherHistogram() {
+    Histogram low = new Histogram();
+    Histogram high = new Histogram();
+    for (long value = 1; value <= 100; value++)
+      low.record(value);
+    for (long value = 1001; value <= 1100; value++)
+      high.record(value);
+
+    low.add(high);
+    assertEquals(200, low.getCount());
+    assertEquals(550.5, low.getMean(), 1e-9);
+    assertEquals(1100, low.getMax());
+    assertTrue(low.getPercentile(50) >= 100 && low.getPercentile(50) < 107);
+    assertEquals(100, high.getCount());
+  }
+
+  @Test
+  public void losesNothingAcrossThreads() throws InterruptedException {
+    Histogram histogram = new Histogram();
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      long offset = t;
+      threads[t] = new Thread(() -> {
+        for (long value = 0; value < 100_000; value++)
+          histogram.record(value * threads.length + offset);
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads)
+      thread.join();
+
+    long records = 100_000L * threads.length;
+    assertEquals(records, histogram.getCount());
+    assertEquals((records - 1) / 2.0, histogram.getMean(), 1e-6);
+    assertEquals(records - 1, histogram.getMax());
+  }
+}
@@ -0,0 +1,111 @@
+package sim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * MinCostMatching on small matrices whose best assignment is known,
+ * and on random ones against trying every assignment.
+ */
+public class MinCostMatchingTest {
+
+  @Test
+  public void solvesASquareMatrix() {
+    long[][] cost = {
+      {4, 1, 3},
+      {2, 0, 5},
+      {3, 2, 2},
+    };
+    int[] columns = MinCostMatching.solve(cost);
+    assertArrayEquals(new int[] {1, 0, 2}, columns);
+    assertEquals(5, totalCost(cost, columns));
+  }
+
+  @Test
+  public void leavesTheWorstColumnsOut() {
+    long[][] cost = {
+      {9, 2, 7, 8},
+      {6, 4, 3, 7},
+    };
+    int[] columns = MinCostMatching.solve(cost);
+    assertArrayEquals(new int[] {1, 2}, columns);
+    assertEquals(5, totalCost(cost, columns));
+  }
+
+  @Test
+  public void givesUpTheCheapestColumnWhenBothRowsWantIt() {
+    long[][] cost = {
+      {1, 100, 2},
+      {1,   3, 100},
+    };
+    // Taking column 0 for either row costs more overall
+    int[] columns = MinCostMatching.solve(cost);
+    assertArrayEquals(new int[] {2, 0}, columns);
+    assertEquals(3, totalCost(cost, columns));
+  }
+
+  @Test
+  public void picksTheCheapestColumnForOneRow() {
+    assertArrayEquals(new int[] {3}, MinCostMatching.solve(new long[][] {{5, 4, 6, 1, 2}}));
+  }
+
+  @Test
+  public void handlesNoRows() {
+    assertEquals(0, MinCostMatching.solve(new long[0][]).length);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsMoreRowsThanColumns() {
+    MinCostMatching.solve(new long[][] {{1, 2}, {3, 4}, {5, 6}});
+  }
+
+  @Test
+  public void matchesEveryAssignmentTried() {
+    Random random = new Random(42);
+    for (int round = 0; round < 500; round++) {
+      int rows = 1 + random.nextInt(5);
+      int columns = rows + random.nextInt(3);
+      long[][] cost = new long[rows][columns];
+      for (long[] row : cost) {
+        for (int j = 0; j < columns; j++)
+          row[j] = random.nextInt(50_000);
+      }
+
+      int[] solved = MinCostMatching.solve(cost);
+      assertEquals(rows, solved.length);
+      boolean[] taken = new boolean[columns];
+      for (int column : solved) {
+        assertFalse("column given twice", taken[column]);
+        taken[column] = true;
+      }
+      assertEquals(bestCost(cost, 0, new boolean[columns]), totalCost(cost, solved));
+    }
+  }
+
+  private static long totalCost(long[][] cost, int[] columns) {
+    long total = 0;
+    for (int i = 0; i < columns.length; i++)
+      total += cost[i][columns[i]];
+    return total;
+  }
+
+  /** Try every free column for the row and the rows after it */
+  private static long bestCost(long[][] cost, int row, boolean[] taken) {
+    if (row == cost.length)
+      return 0;
+    long best = Long.MAX_VALUE;
+    for (int j = 0; j < taken.length; j++) {
+      if (taken[j])
+        continue;
+      taken[j] = true;
+      best = Math.min(best, cost[row][j] + bestCost(cost, row + 1, taken));
+      taken[j] = false;
+    }
+    return best;
+  }
+}
@@ -0,0 +1,91 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * MotionProfile flight times against the textbook formula of each
+ * regime, and the position along every flight against its limits.
+ */
+public class MotionProfileTest {
+  private static final int FLOORS = 120;
+
+  // 2.5 m/s, 1 m/s² and 1.5 m/s³ with 3.5 m storeys: one and two floors
+  // never reach the rated speed, three floors and more cruise at it
+  private final MotionProfile rated = new MotionProfile(2.5, 1.0, 1.5, 3.5, FLOORS);
+
+  // A soft jerk on 0.5 m storeys: one floor never reaches the rated acceleration
+  private final MotionProfile soft = new MotionProfile(2.5, 1.0, 0.5, 0.5, FLOORS);
+
+  @Test
+  public void cruisesAtTheRatedSpeed() {
+    // d / v + v / a + a / j
+    for (int levels = 3; levels < FLOORS; levels++)
+      assertFlightTime(levels * 3.5 / 2.5 + 2.5 / 1.0 + 1.0 / 1.5, rated, levels);
+  }
+
+  @Test
+  public void peaksBelowTheRatedSpeed() {
+    // The peak v solves d = v * (v / a + a / j), the flight takes 2 * (v / a + a / j)
+    for (int levels = 1; levels <= 2; levels++) {
+      double distance = levels * 3.5;
+      double ramp = 1.0 / 1.5;
+      double peak = (-ramp + Math.sqrt(ramp * ramp + 4 * distance)) / 2;
+      assertTrue(peak < 2.5 && peak > ramp);
+      assertFlightTime(2 * (peak / 1.0 + ramp), rated, levels);
+    }
+  }
+
+  @Test
+  public void neverReachesTheRatedAcceleration() {
+    // The jerk alone takes t to cover d / 2, with d = 2 * j * t³ for the whole flight
+    double jerkTime = Math.cbrt(0.5 / (2 * 0.5));
+    assertTrue(0.5 * jerkTime < 1.0);
+    assertFlightTime(4 * jerkTime, soft, 1);
+  }
+
+  @Test
+  public void takesLongerForEveryFloorMore() {
+    for (MotionProfile motion : new MotionProfile[] {rated, soft}) {
+      assertEquals(0L, motion.getFlightTime(0));
+      for (int levels = 1; levels < FLOORS; levels++) {
+        assertTrue(motion.getFlightTime(levels) > motion.getFlightTime(levels - 1));
+        assertEquals(motion.getFlightTime(levels), motion.getFlightTime(-levels));
+      }
+    }
+  }
+
+  @Test
+  public void coversTheFlightSmoothlyAndOnTime() {
+    for (MotionProfile motion : new MotionProfile[] {rated, soft}) {
+      // Floors per millisecond at the rated speed, with some room for rounding
+      double limit = motion.getSpeed() / motion.getStoreyHeight() / 1000.0 * 1.0001;
+      for (int levels : new int[] {1, 2, 3, 4, 10, FLOORS - 1}) {
+        long flightTime = motion.getFlightTime(levels);
+        double previous = 0.0;
+        assertEquals(0.0, motion.getLevelsCovered(levels, 0L), 1e-12);
+        for (long time = 1; time <= flightTime; time++) {
+          double covered = motion.getLevelsCovered(levels, time);
+          assertTrue("went back at " + time + " ms of " + levels, covered >= previous);
+          assertTrue("too fast at " + time + " ms of " + levels, covered - previous <= limit);
+          previous = covered;
+        }
+        assertEquals(levels, motion.getLevelsCovered(levels, flightTime), 0.0);
+        assertEquals(levels, motion.getLevelsCovered(levels, flightTime + 1000), 0.0);
+        // Half way through, a symmetric flight is half way there
+        assertEquals(levels / 2.0, motion.getLevelsCovered(levels, flightTime / 2), 0.01 * levels);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsAStandingLift() {
+    new MotionProfile(0.0, 1.0, 1.5, 3.5, FLOORS);
+  }
+
+  private static void assertFlightTime(double seconds, MotionProfile motion, int levels) {
+    assertEquals(Math.round(seconds * 1000.0), motion.getFlightTime(levels));
+  }
+}
@@ -6,15 +6,15 @@ import static constants.BuildingConstant.*;
 import static constants.CommonConstant.*;
 import static constants.ElevatorConstant.*;
 import static constants.PersonConstant.*;
+import static constants.SimulationConstant.ONE_HOUR;
+import static constants.SimulationConstant.SIDE_LEFT;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
 
-import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.layout.HBox;
@@ -26,106 +26,121 @@ import javafx.scene.shape.Line;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 
-public class Building extends StackPane {
+import sim.BuildingConfig;
+import sim.ButtonPanel;
+import sim.HallButton;
+import sim.Lift;
+import sim.Passenger;
+import sim.Simulation;
+import sim.TrafficListener;
+
+/**
+ * The view of a building.
+ *
+ * Everything happens inside the simulation, this class only creates
+ * and removes the views, the frame driver keeps them up to date.
+ * People coming and going are handed to the frame driver as well,
+ * which adds and removes their views a few at a time.
+ */
+public class Building extends StackPane implements TrafficListener {
 
   private BuildingConfig config;
+  private Simulation simulation;
   private List<Elevator> elevators;
   private List<ElevatorButton> buttons;
-  private Set<Person> persons;
+  private Map<Passenger, Person> persons;
+  private Crowd crowd;
+  private PersonPool personPool;
 
-  private int peopleCount;
-  private Thread trafficController;
+  private FrameDriver frameDriver;
   private BuildingModel model;
 
   public Building(BuildingConfig config) {
-    this.config      = config;
+    this(new Simulation(config));
+  }
+
+  /** Show a simulation which has been set up but not started yet */
+  public Building(Simulation simulation) {
+    this(simulation, new FrameDriver(simulation));
+  }
+
+  /** Show the simulation at the pace of the given driver */
+  public Building(Simulation simulation, FrameDriver frameDriver) {
+    this.config      = simulation.getConfig();
+    this.simulation  = simulation;
     this.elevators   = new ArrayList<>();
     this.buttons     = new ArrayList<>();
-    this.persons     = new HashSet<>();
-    this.peopleCount = 0;
-    this.initButtons();
-
-    for (String id : config.getSyncLiftIds())
-      this.elevators.add(new Elevator(id, true, config, buttons));
-    for (String id : config.getAsyncLiftIds())
-      this.elevators.add(new Elevator(id, false, config, buttons));
+    this.persons     = new HashMap<>();
+    this.crowd       = new Crowd();
+    this.frameDriver = frameDriver;
+
+    for (Lift lift : simulation.getLifts()) {
+      Elevator elevator = new Elevator(lift, config, persons, crowd);
+      lift.setStateListener(() -> frameDriver.activate(elevator));
+      this.elevators.add(elevator);
+    }
+    for (HallButton button : simulation.getButtons().getButtons())
+      this.buttons.add(ElevatorButton.create(button, frameDriver));
 
+    this.personPool = new PersonPool(config, elevators);
     this.model = new BuildingModel();
     this.getChildren().add(model);
+    this.simulation.setTrafficListener(this);
     this.startController();
   }
 
-  /** Initialize elevator buttons */
-  private void initButtons() {
-    int floors = config.getFloors();
-    int undergrounds = config.getUndergrounds();
-
-    for (String elevatorId : config.getLiftIds()) {
-      for (int j = 0; j < floors; j++) {
-        int floor = floors - undergrounds - j;
+  /** Define and start the animation */
+  private void startController() {
+    // Open in the morning rather than in the middle of the night
+    this.simulation.setStartTimeOfDay(8 * ONE_HOUR);
+    this.simulation.start();
+    this.elevators.forEach(e -> frameDriver.activate(e));
+    this.frameDriver.start();
+  }
 
-        ElevatorButton btnUp =
-            ElevatorButton.createUpButton(elevatorId, floor > 0 ? floor : floor - 1);
-        ElevatorButton btnDown =
-            ElevatorButton.createDownButton(elevatorId, floor > 0 ? floor : floor - 1);
+  public Simulation getSimulation() {
+    return this.simulation;
+  }
 
-        if (j == 0) // highest floor does not have up button
-          btnUp.setVisible(false);
-        else if (j == floors - 1) // lowest floor does not have down button
-          btnDown.setVisible(false);
+  public PersonPool getPersonPool() {
+    return this.personPool;
+  }
 
-        buttons.addAll(Arrays.asList(btnUp, btnDown));
-      }
-    }
+  @Override
+  public void personArrived(Passenger passenger) {
+    frameDriver.post(() -> addPerson(passenger));
   }
 
-  /** Define and start the animation */
-  private void startController() {
-    this.trafficController = new Thread(() -> {
-      try {
-        while (true) {
-          Platform.runLater(() -> handleTraffic());
-          Thread.sleep(CONTROLLER_INTERVAL);
-        }
-      } catch (InterruptedException ex) {}
-    });
-    this.trafficController.start();
+  @Override
+  public void peopleLeft(List<Passenger> leavers) {
+    frameDriver.post(() -> removePeople(leavers));
   }
 
-  /** Define when is the suitable time to create new people */
-  private boolean isTrafficClear() {
-    // Introduce some randomness to pervert people from showing up too quickly
-    return (persons.size() <= elevators.size() * config.getFloors() / 2) &&
-           ((int)(Math.random() * 100)) % 5 == 0;
+  private void addPerson(Passenger passenger) {
+    Person newPerson = personPool.acquire(passenger);
+    persons.put(passenger, newPerson);
+    passenger.setStateListener(() -> frameDriver.activate(newPerson));
+    model.addNewPersonToScreen(newPerson);
+    frameDriver.activate(newPerson);
   }
 
-  /** Remove/Add people from/to the system */
-  private void handleTraffic() {
-    // Remove anyone who has completed his life cycle
-    Set<Person> leavers = persons.stream()
-                                 .filter(p -> p.isLifeCycleCompleted())
-                                 .collect(Collectors.toSet());
-    model.removePeopleFromScreen(leavers);
-    persons.removeAll(leavers);
-
-    // Add new people only if the traffic isn't busy
-    if (isTrafficClear()) {
-      int[] pair = FloorPair.getPair(config);
-      Person newPerson =
-          new Person(++peopleCount % 5 == 0 ? "#" + peopleCount : "", pair[0], pair[1], elevators);
-      persons.add(newPerson);
-      model.addNewPersonToScreen(newPerson);
+  private void removePeople(List<Passenger> leavers) {
+    for (Passenger passenger : leavers) {
+      Person person = persons.remove(passenger);
+      passenger.setStateListener(null);
+      frameDriver.deactivate(person);
+      model.removePersonFromScreen(person);
+      personPool.release(person);
     }
   }
 
   /** Return a pair of elevator buttons which belong to
    *  the same lift and the same floor, "UP" button first */
-  private List<ElevatorButton> findButtonPair(String elevatorId, int floor) {
-    return buttons.stream()
-                  .filter(b -> b.getElevatorId().equals(elevatorId))
-                  .filter(b -> b.getFloor() == floor)
-                  .sorted((btn1, btn2) -> btn2.getDirection() == DIRECTION_UP ? 1 : -1)
-                  .collect(Collectors.toList());
+  private List<ElevatorButton> findButtonPair(int lift, int floor) {
+    ButtonPanel panel = simulation.getButtons();
+    int level = config.toLevel(floor);
+    return Arrays.asList(buttons.get(panel.indexOf(lift, level, DIRECTION_UP)),
+                         buttons.get(panel.indexOf(lift, level, DIRECTION_DOWN)));
   }
 
   /** Inner class representing a building */
@@ -143,6 +158,7 @@ public class Building extends StackPane {
       drawElevatorWells();
       drawButtons();
       drawElevators();
+      getChildren().add(crowd);
     }
 
     /** Justify the coordinates of a piece of UI and add it to the screen */
@@ -213,7 +229,6 @@ public class Building extends StackPane {
       for (int i = 0; i < elevators.size(); i++) {
         VBox vbox = new VBox(FLOOR_HEIGHT * 0.38);
         vbox.setAlignment(Pos.CENTER);
-        String elevatorId = elevators.get(i).getLiftId();
 
         for (int j = 0; j < floors; j++) {
           VBox vbox2  = new VBox(FLOOR_HEIGHT / 12);
@@ -221,7 +236,7 @@ public class Building extends StackPane {
           vbox2.setAlignment(Pos.CENTER);
           int floor = floors - undergrounds - j;
 
-          vbox2.getChildren().addAll(findButtonPair(elevatorId, floor > 0 ? floor : floor - 1));
+          vbox2.getChildren().addAll(findButtonPair(i, floor > 0 ? floor : floor - 1));
           vbox.getChildren().add(vbox2);
         }
         box.getChildren().add(vbox);
@@ -271,13 +286,13 @@ public class Building extends StackPane {
       else if (floor < 0)
         offsetY += getAdjustedFloorHeight(diff) * (diff - 1);
 
-      person.setTranslateX(startX + offsetX);
-      person.setTranslateY(startY + offsetY);
-      getChildren().add(person);
+      person.placeAt(startX + offsetX, startY + offsetY);
+      crowd.add(person);
     }
 
-    public void removePeopleFromScreen(Set<Person> people) {
-      getChildren().removeAll(people);
+    public void removePersonFromScreen(Person person) {
+      person.removeFrom(crowd);
+      assert person.getParent() == null : "Person view still on the screen";
     }
   }
 }
@@ -0,0 +1,433 @@
+package app;
+
+import static app.Main.*;
+
+import static constants.BuildingConstant.FLOOR_HEIGHT;
+import static constants.CommonConstant.*;
+import static constants.ElevatorConstant.*;
+import static constants.PersonConstant.*;
+import static constants.SimulationConstant.*;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import sim.BuildingConfig;
+import sim.ButtonPanel;
+import sim.HallButton;
+import sim.Lift;
+import sim.Passenger;
+import sim.Simulation;
+import sim.TrafficListener;
+
+/**
+ * The view of a building drawn on a single canvas.
+ *
+ * Unlike the node view, there is no node per lift or per person. On every
+ * pulse the positions of everything are read from the simulation into
+ * arrays, then the whole building is painted from them, so thousands
+ * of people cost a few thousand strokes and no layout or CSS pass.
+ * The stick figures standing in full are stroked as one path.
+ */
+public class CanvasBuilding extends Pane implements TrafficListener, FrameDriver.Animated {
+  // Half side of the button triangle, as in the node view
+  private static final double HALF_SIDE = ELEVATOR_HEIGHT / 8.0;
+  private static final double TAN_60    = Math.tan(Math.toRadians(60));
+
+  private final BuildingConfig config;
+  private final Simulation simulation;
+  private final List<Lift> lifts;
+  private final ButtonPanel buttons;
+  private final Set<Passenger> persons; // people in the building, in order of arrival
+  private final FrameDriver frameDriver;
+  private final GraphicsContext gc;
+
+  // Geometry, fixed once the screen size is known
+  private final int floors;
+  private final double floorPitch;    // distance between two floor lines
+  private final double floorWidth;
+  private final double startX;
+  private final double startY;
+  private final Color[] liftColors;
+  private final String[] floorSigns;  // sign of each level, "G" for the ground floor
+  private final String[] floorNumbers; // number shown above a moving lift, by level
+  private final Font signFont;
+  private final Font liftFont;
+  private final Font nameFont;
+
+  // Snapshot of the lifts, by index
+  private final double[] liftLevels;
+  private final double[] doorsOpened; // 0 when closed, 1 when fully opened
+
+  // Snapshot of the visible people, the first personCount entries are valid
+  private Passenger[] shownPersons;
+  private double[] personX;          // head center
+  private double[] personLevel;      // level the feet stand on, fractions while riding
+  private double[] personAlpha;
+  private int personCount;
+  private int riders;                // entries standing inside lifts, at the front
+
+  public CanvasBuilding(Simulation simulation) {
+    this(simulation, new FrameDriver(simulation));
+  }
+
+  /** Show the simulation at the pace of the given driver */
+  public CanvasBuilding(Simulation simulation, FrameDriver frameDriver) {
+    this.config      = simulation.getConfig();
+    this.simulation  = simulation;
+    this.lifts       = simulation.getLifts();
+    this.buttons     = simulation.getButtons();
+    this.persons     = new LinkedHashSet<>();
+    this.frameDriver = frameDriver;
+
+    this.floors     = config.getFloors();
+    this.floorPitch = FLOOR_HEIGHT + SCREEN_HEIGHT_SCALE;
+    this.floorWidth = lifts.size() * (ELEVATOR_WIDTH + ELEVATOR_GAP) + ELEVATOR_GAP;
+    this.startX     = (SCREEN_WIDTH - floorWidth) / 2;
+    this.startY     = (SCREEN_HEIGHT - floors * floorPitch) / 2;
+
+    this.liftColors = new Color[lifts.size()];
+    for (int i = 0; i < liftColors.length; i++)
+      liftColors[i] = Color.color(Math.random(), Math.random(), Math.random());
+    this.floorSigns   = new String[floors];
+    this.floorNumbers = new String[floors];
+    for (int level = 0; level < floors; level++) {
+      int floor = config.toFloor(level);
+      floorNumbers[level] = "" + floor;
+      floorSigns[level] = floor == 1 ? "G" : floor < 1 ? -floor + "UG" : floor + "F";
+    }
+
+    this.signFont = Font.font(20 * COMBINED_SCALE);
+    this.liftFont = Font.font(18 * COMBINED_SCALE);
+    this.nameFont = Font.font(12 * COMBINED_SCALE);
+
+    this.liftLevels  = new double[lifts.size()];
+    this.doorsOpened = new double[lifts.size()];
+    this.shownPersons = new Passenger[64];
+    this.personX      = new double[64];
+    this.personLevel  = new double[64];
+    this.personAlpha  = new double[64];
+
+    Canvas canvas = new Canvas(SCREEN_WIDTH, SCREEN_HEIGHT);
+    this.gc = canvas.getGraphicsContext2D();
+    this.getChildren().add(canvas);
+
+    this.simulation.setTrafficListener(this);
+    this.startController();
+  }
+
+  /** Define and start the animation */
+  private void startController() {
+    // Open in the morning rather than in the middle of the night
+    this.simulation.setStartTimeOfDay(8 * ONE_HOUR);
+    this.simulation.start();
+    this.frameDriver.activate(this);
+    this.frameDriver.start();
+  }
+
+  public Simulation getSimulation() {
+    return this.simulation;
+  }
+
+  @Override
+  public void personArrived(Passenger passenger) {
+    persons.add(passenger);
+  }
+
+  @Override
+  public void peopleLeft(List<Passenger> leavers) {
+    // Not removeAll, which may go through the list for every person inside
+    for (Passenger passenger : leavers)
+      persons.remove(passenger);
+  }
+
+  /** Read the latest state and paint the whole building, on every pulse */
+  @Override
+  public boolean refresh() {
+    takeSnapshot();
+    gc.clearRect(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
+    drawFloors();
+    drawButtons();
+    drawLifts();
+    drawPersons();
+    return true;
+  }
+
+  /** Read the lifts and the people once, the painting only uses the arrays */
+  private void takeSnapshot() {
+    personCount = 0;
+    for (int i = 0; i < lifts.size(); i++) {
+      Lift lift = lifts.get(i);
+      liftLevels[i] = lift.getLevel();
+      doorsOpened[i] = getDoorsOpened(lift);
+
+      // Passengers are not visible when doors are closed, the doors
+      // are painted over them, so they are only spread evenly inside
+      if (doorsOpened[i] == 0.0)
+        continue;
+      int size = lift.getPassengers().size();
+      double gap = size > 1 ? (ELEVATOR_WIDTH - PERSON_WIDTH) / (size - 1) : 0.0;
+      double x = size > 1 ? getLiftX(i) + PERSON_WIDTH / 2 : getDoorCenterX(i);
+      for (Passenger passenger : lift.getPassengers()) {
+        if (passenger.getState() == PersonState.MOVE_WITH_LIFT)
+          addPerson(passenger, x, liftLevels[i], 1.0);
+        x += gap;
+      }
+    }
+    riders = personCount;
+
+    for (Passenger passenger : persons) {
+      Lift chosenLift = passenger.getChosenLift();
+      switch (passenger.getState()) {
+        case ENTER:
+        case WAITING:
+          addPerson(passenger, getHallX(passenger, passenger.getWalkedBays()),
+                    config.toLevel(passenger.getLegStartFloor()), 1.0);
+          break;
+        case WALK_IN:
+          double waitX = getHallX(passenger, passenger.getWalkedBays());
+          double doorX = getDoorCenterX(chosenLift.getIndex());
+          addPerson(passenger, waitX + (doorX - waitX) * passenger.getPhaseProgress(),
+                    config.toLevel(passenger.getLegStartFloor()), 1.0);
+          break;
+        case WALK_OUT:
+          // Walk back to where this person came from, fading out unless
+          // there is another lift to change to
+          double walked = WALK_OUT_DISTANCE * passenger.getPhaseProgress();
+          addPerson(passenger, getDoorCenterX(chosenLift.getIndex()) +
+                               (passenger.getAppearSide() == SIDE_LEFT ? -walked : walked),
+                    config.toLevel(passenger.getLegEndFloor()),
+                    passenger.isLastLeg() ? 1.0 - 0.9 * passenger.getPhaseProgress() : 1.0);
+          break;
+        default:
+          // Riding people are read with their lifts, those who have left are gone
+          break;
+      }
+    }
+  }
+
+  private void addPerson(Passenger passenger, double x, double level, double alpha) {
+    if (personCount == personX.length) {
+      int length = personCount * 2;
+      shownPersons = Arrays.copyOf(shownPersons, length);
+      personX      = Arrays.copyOf(personX, length);
+      personLevel  = Arrays.copyOf(personLevel, length);
+      personAlpha  = Arrays.copyOf(personAlpha, length);
+    }
+    shownPersons[personCount] = passenger;
+    personX[personCount]      = x;
+    personLevel[personCount]  = level;
+    personAlpha[personCount]  = alpha;
+    personCount++;
+  }
+
+  /** Return how much the doors are opened, as the node view draws them */
+  private double getDoorsOpened(Lift lift) {
+    switch (lift.getState()) {
+      case OPENING: return lift.getPhaseProgress();
+      case WAITING: return 1.0;
+      case CLOSING: return 1.0 - lift.getPhaseProgress();
+      default:      return 0.0;
+    }
+  }
+
+  private void drawFloors() {
+    gc.setLineWidth(1.0);
+    gc.setLineDashes();
+    for (int level = 0; level <= floors; level++) {
+      // The line under the ground floor is red
+      gc.setStroke(level == config.toLevel(1) ? Color.RED : Color.WHITESMOKE);
+      double y = getFloorY(level);
+      gc.strokeLine(startX, y, startX + floorWidth, y);
+    }
+
+    gc.setFill(Color.WHITESMOKE);
+    gc.setFont(signFont);
+    gc.setTextAlign(TextAlignment.RIGHT);
+    gc.setTextBaseline(VPos.CENTER);
+    for (int level = 0; level < floors; level++)
+      gc.fillText(floorSigns[level], startX - ELEVATOR_GAP / 4, getFloorY(level) - floorPitch / 2);
+
+    gc.setStroke(Color.WHITESMOKE);
+    gc.setLineDashes(10.0, 10.0);
+    for (int i = 0; i < lifts.size(); i++) {
+      double x = getLiftX(i);
+      gc.strokeLine(x, getFloorY(floors), x, getFloorY(0));
+      gc.strokeLine(x + ELEVATOR_WIDTH, getFloorY(floors), x + ELEVATOR_WIDTH, getFloorY(0));
+    }
+    gc.setLineDashes();
+  }
+
+  private void drawButtons() {
+    for (int i = 0; i < lifts.size(); i++) {
+      double x = getDoorCenterX(i) + ELEVATOR_WIDTH * 0.70;
+      for (int level = 0; level < floors; level++) {
+        int floor = config.toFloor(level);
+        double y = getFloorY(level) - floorPitch / 2;
+        drawButton(i, floor, DIRECTION_UP, x, y - HALF_SIDE * TAN_60 - 2.0, 1.0);
+        drawButton(i, floor, DIRECTION_DOWN, x, y + HALF_SIDE * TAN_60 + 2.0, -1.0);
+      }
+    }
+  }
+
+  /** Draw a triangle pointing up or down, its apex at the given point */
+  private void drawButton(int lift, int floor, int direction, double x, double y, double sign) {
+    HallButton button = buttons.get(lift, floor, direction);
+    if (!button.isUsable())
+      return;
+
+    boolean lit = button.isLightOn();
+    gc.setGlobalAlpha(lit ? 1.0 : 0.75);
+    gc.setFill(lit ? Color.ORANGE : Color.BLACK);
+    gc.setStroke(lit ? Color.ORANGE : Color.WHITESMOKE);
+    gc.beginPath();
+    gc.moveTo(x, y);
+    gc.lineTo(x + HALF_SIDE, y + sign * HALF_SIDE * TAN_60);
+    gc.lineTo(x - HALF_SIDE, y + sign * HALF_SIDE * TAN_60);
+    gc.closePath();
+    gc.fill();
+    gc.stroke();
+    gc.setGlobalAlpha(1.0);
+  }
+
+  /** Draw the people inside, then the doors over them, then the floor numbers of moving lifts */
+  private void drawLifts() {
+    drawFigures(0, riders);
+
+    gc.setStroke(Color.WHITESMOKE);
+    gc.setFont(liftFont);
+    gc.setTextAlign(TextAlignment.LEFT);
+    gc.setTextBaseline(VPos.BASELINE);
+    for (int i = 0; i < lifts.size(); i++) {
+      double x = getLiftX(i);
+      double y = getFloorY(liftLevels[i]) - ELEVATOR_HEIGHT;
+      double doorWidth = ELEVATOR_WIDTH / 2 * (1.0 - doorsOpened[i]);
+
+      gc.setFill(liftColors[i]);
+      gc.fillRect(x, y, doorWidth, ELEVATOR_HEIGHT);
+      gc.fillRect(x + ELEVATOR_WIDTH - doorWidth, y, doorWidth, ELEVATOR_HEIGHT);
+      gc.strokeRect(x, y, doorWidth, ELEVATOR_HEIGHT);
+      gc.strokeRect(x + ELEVATOR_WIDTH - doorWidth, y, doorWidth, ELEVATOR_HEIGHT);
+
+      if (lifts.get(i).isMoving()) {
+        int level = config.toLevel(lifts.get(i).getCurrentFloor());
+        gc.fillText(floorNumbers[level], x + ELEVATOR_WIDTH / 4, y - ELEVATOR_HEIGHT / 7);
+      }
+    }
+  }
+
+  private void drawPersons() {
+    drawFigures(riders, personCount);
+  }
+
+  /**
+   * Draw the snapshot entries in the range. Everyone standing in full is
+   * added to one path which is stroked at once, only those fading out
+   * are stroked one by one.
+   */
+  private void drawFigures(int from, int to) {
+    gc.setStroke(Color.WHITESMOKE);
+    gc.setLineWidth(1.0);
+    gc.beginPath();
+    for (int i = from; i < to; i++) {
+      if (personAlpha[i] >= 1.0)
+        traceFigure(personX[i], getHeadY(personLevel[i]));
+    }
+    gc.stroke();
+
+    for (int i = from; i < to; i++) {
+      if (personAlpha[i] < 1.0) {
+        gc.setGlobalAlpha(personAlpha[i]);
+        gc.beginPath();
+        traceFigure(personX[i], getHeadY(personLevel[i]));
+        gc.stroke();
+      }
+    }
+
+    // Only every fifth person has a name, plus the lift given by the terminal
+    gc.setFill(Color.WHITESMOKE);
+    gc.setFont(nameFont);
+    gc.setTextAlign(TextAlignment.LEFT);
+    gc.setTextBaseline(VPos.CENTER);
+    for (int i = from; i < to; i++) {
+      Passenger passenger = shownPersons[i];
+      Lift assignedLift = passenger.getAssignedLift();
+      if (passenger.getName().isEmpty() && assignedLift == null)
+        continue;
+      gc.setGlobalAlpha(personAlpha[i]);
+      double x = personX[i] + 12 * SCREEN_WIDTH_SCALE;
+      double y = getHeadY(personLevel[i]) + HEAD_RADIUS;
+      gc.fillText(passenger.getName(), x, y);
+      if (assignedLift != null)
+        gc.fillText(assignedLift.getLiftId(), x, y + 12 * COMBINED_SCALE);
+    }
+    gc.setGlobalAlpha(1.0);
+  }
+
+  /** Add a stick figure with its head centered at the point to the current path */
+  private void traceFigure(double x, double y) {
+    double neckY = y + HEAD_RADIUS;
+    double hipY  = neckY + BODY_LENGTH;
+    double armY  = (neckY + hipY) / 2;
+    double armX  = ARM_LENGTH * Math.cos(ARM_ANGLE);
+    double handY = armY - ARM_LENGTH * Math.sin(ARM_ANGLE);
+    double legX  = LEG_LENGTH * Math.sin(LEG_ANGLE);
+    double footY = hipY + LEG_LENGTH * Math.cos(LEG_ANGLE);
+
+    gc.moveTo(x + HEAD_RADIUS, y);
+    gc.arc(x, y, HEAD_RADIUS, HEAD_RADIUS, 0, 360);
+    gc.moveTo(x, neckY);
+    gc.lineTo(x, hipY);
+    gc.moveTo(x - armX, handY);
+    gc.lineTo(x, armY);
+    gc.lineTo(x + armX, handY);
+    gc.moveTo(x - legX, footY);
+    gc.lineTo(x, hipY);
+    gc.lineTo(x + legX, footY);
+  }
+
+  /** Return the position after passing some lifts in the hall */
+  private double getHallX(Passenger passenger, double bays) {
+    int passed = (int) bays;
+    double from = getButtonX(passenger, passed);
+    if (passed >= lifts.size())
+      return from;
+    return from + (getButtonX(passenger, passed + 1) - from) * (bays - passed);
+  }
+
+  /** Return the position of the button of the n-th lift met, 0 for the entrance */
+  private double getButtonX(Passenger passenger, int n) {
+    boolean fromLeft = passenger.getAppearSide() == SIDE_LEFT;
+    if (n == 0)
+      return fromLeft ? startX : startX + floorWidth;
+    int index = fromLeft ? n - 1 : lifts.size() - n;
+    return getDoorCenterX(index) + ELEVATOR_WIDTH;
+  }
+
+  private double getLiftX(int index) {
+    return startX + ELEVATOR_GAP + index * (ELEVATOR_WIDTH + ELEVATOR_GAP);
+  }
+
+  private double getDoorCenterX(int index) {
+    return getLiftX(index) + ELEVATOR_WIDTH / 2;
+  }
+
+  /** Return the height of the line the level stands on, fractions included */
+  private double getFloorY(double level) {
+    return startY + (floors - level) * floorPitch;
+  }
+
+  /** Return the height of the head of a person standing on the level */
+  private double getHeadY(double level) {
+    return getFloorY(level) - PERSON_HEIGHT + HEAD_RADIUS;
+  }
+}
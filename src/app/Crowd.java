@@ -0,0 +1,45 @@
+package app;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+
+/**
+ * The layer of the people standing or walking in the halls.
+ *
+ * Every person remembers its index among the children, a person is
+ * removed by moving the last one into its place, so removing people
+ * costs as much as the number of them, not the size of the crowd.
+ * The order only decides which person is drawn over which.
+ */
+public class Crowd extends Pane {
+
+  private final Map<Person, Integer> indexes; // index of each person among the children
+
+  public Crowd() {
+    this.indexes = new HashMap<>();
+  }
+
+  public void add(Person person) {
+    indexes.put(person, getChildren().size());
+    getChildren().add(person);
+  }
+
+  /** Take the person out of the crowd, return false if it is not in it */
+  public boolean remove(Person person) {
+    Integer index = indexes.remove(person);
+    if (index == null)
+      return false;
+
+    ObservableList<Node> children = getChildren();
+    Person last = (Person) children.remove(children.size() - 1);
+    if (last != person) {
+      children.set(index, last);
+      indexes.put(last, index);
+    }
+    return true;
+  }
+}
@@ -1,70 +1,78 @@
 package app;
 
 import static constants.CommonConstant.DIRECTION_UP;
-import static constants.CommonConstant.DIRECTION_DOWN;
 import static constants.ElevatorConstant.ELEVATOR_HEIGHT;
 
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Polygon;
 
+import sim.HallButton;
+
 /**
  * Elevator buttons are the ones launching the initial requests
  * (outside lifts), not those number buttons inside the lifts.
+ *
+ * The light follows the state of the simulated button, redrawn at most
+ * once per pulse however often it is switched.
  */
-public class ElevatorButton extends StackPane {
+public class ElevatorButton extends StackPane implements FrameDriver.Animated {
   // Half side of the button triangle
   private static final double HALF_SIDE = ELEVATOR_HEIGHT / 8.0;
 
   private final Polygon shape;     // its shape, a triangle
-  private final String elevatorId; // lift it belongs to
-  private final int floor;         // floor it is at
-  private final int direction;     // direction it faces
-  private boolean isOn;            // its light, on/off
-
-  private ElevatorButton(Polygon shape,
-                         String elevatorId,
-                         int floor,
-                         int direction) {
-    this.shape      = shape;
-    this.elevatorId = elevatorId;
-    this.floor      = floor;
-    this.direction  = direction;
-    this.turnOff();
+  private final HallButton button; // the simulated button
+
+  private ElevatorButton(Polygon shape, HallButton button, FrameDriver frameDriver) {
+    this.shape  = shape;
+    this.button = button;
+    this.drawLight();
+    this.setVisible(button.isUsable());
     this.getChildren().add(shape);
+    button.setListener(() -> frameDriver.activate(this));
   }
 
   public String getElevatorId() {
-    return this.elevatorId;
+    return this.button.getElevatorId();
   }
 
   public int getFloor() {
-    return this.floor;
+    return this.button.getFloor();
   }
 
   public int getDirection() {
-    return this.direction;
+    return this.button.getDirection();
   }
 
   public boolean isLightOn() {
-    return this.isOn;
+    return this.button.isLightOn();
+  }
+
+  @Override
+  public boolean refresh() {
+    drawLight();
+    return false;
   }
 
-  public void turnOn() {
-    shape.setFill(Color.ORANGE);
-    shape.setStroke(Color.ORANGE);
-    shape.setOpacity(1.0);
-    isOn = true;
+  private void drawLight() {
+    if (button.isLightOn()) {
+      shape.setFill(Color.ORANGE);
+      shape.setStroke(Color.ORANGE);
+      shape.setOpacity(1.0);
+    } else {
+      shape.setFill(Color.BLACK);
+      shape.setStroke(Color.WHITESMOKE);
+      shape.setOpacity(0.75);
+    }
   }
 
-  public void turnOff() {
-    shape.setFill(Color.BLACK);
-    shape.setStroke(Color.WHITESMOKE);
-    shape.setOpacity(0.75);
-    isOn = false;
+  public static ElevatorButton create(HallButton button, FrameDriver frameDriver) {
+    return button.getDirection() == DIRECTION_UP ?
+        createUpButton(button, frameDriver) :
+        createDownButton(button, frameDriver);
   }
 
-  public static ElevatorButton createUpButton(String elevatorId, int floor) {
+  private static ElevatorButton createUpButton(HallButton button, FrameDriver frameDriver) {
     Polygon shape = new Polygon();
     double tan60 = Math.tan(Math.toRadians(60));
 
@@ -73,10 +81,10 @@ public class ElevatorButton extends StackPane {
         HALF_SIDE, HALF_SIDE * tan60,
         -HALF_SIDE, HALF_SIDE * tan60
     );
-    return new ElevatorButton(shape, elevatorId, floor, DIRECTION_UP);
+    return new ElevatorButton(shape, button, frameDriver);
   }
 
-  public static ElevatorButton createDownButton(String elevatorId, int floor) {
+  private static ElevatorButton createDownButton(HallButton button, FrameDriver frameDriver) {
     Polygon shape = new Polygon();
     double tan60 = Math.tan(Math.toRadians(60));
 
@@ -85,6 +93,6 @@ public class ElevatorButton extends StackPane {
         -HALF_SIDE, -HALF_SIDE * tan60,
         HALF_SIDE, -HALF_SIDE * tan60
     );
-    return new ElevatorButton(shape, elevatorId, floor, DIRECTION_DOWN);
+    return new ElevatorButton(shape, button, frameDriver);
   }
 }
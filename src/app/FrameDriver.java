@@ -0,0 +1,122 @@
+package app;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Queue;
+import java.util.Set;
+
+import javafx.animation.AnimationTimer;
+
+import sim.Simulation;
+
+/**
+ * The one and only driver of all animations.
+ *
+ * On every JavaFX pulse it catches the simulation up with the wall clock
+ * and redraws the views which are still moving. It runs on the FX thread,
+ * so the number of threads stays the same no matter how many people there are.
+ *
+ * Whatever the simulation reports while catching up is only collected.
+ * A view changing many times is redrawn once, and the views to add or
+ * remove wait in a queue of which a limited number are handled per pulse,
+ * so a burst of arrivals is spread over a few frames instead of one long one.
+ *
+ * The simulated time runs at a multiple of the wall clock, which can be
+ * changed at any time. Unthrottled, every pulse simulates as much as
+ * a part of the frame allows, as long as the views keep up. Only how far
+ * the simulation goes per pulse changes, never what happens in it, so
+ * the results are the same at every speed.
+ */
+public class FrameDriver extends AnimationTimer {
+  // Run the simulation as fast as the machine goes
+  public static final double UNTHROTTLED = Double.POSITIVE_INFINITY;
+
+  // Most views added or removed on one pulse
+  private static final int MAX_UPDATES_PER_PULSE = 64;
+
+  // Unthrottled, wall time of a pulse spent simulating, and the simulated time between checks of it
+  private static final long UNTHROTTLED_BUDGET = 8_000_000L;
+  private static final long UNTHROTTLED_STEP   = 1000L;
+
+  private final Simulation simulation;
+  private final Set<Animated> active;   // views which need to be redrawn
+  private final Queue<Runnable> updates; // changes of the scene graph not made yet
+  private double speed;                  // simulated time per wall time, or UNTHROTTLED
+  private double simulatedTime;          // how far the simulation has been run, in milliseconds
+  private long lastPulse;                // wall time of the previous pulse, in nanoseconds
+
+  public FrameDriver(Simulation simulation) {
+    this.simulation = simulation;
+    this.active = new LinkedHashSet<>();
+    this.updates = new ArrayDeque<>();
+    this.speed = 1.0;
+    this.simulatedTime = 0.0;
+    this.lastPulse = -1L;
+  }
+
+  /** Run the simulation at the multiple of the wall clock from the next pulse on */
+  public void setSpeed(double speed) {
+    if (!(speed > 0))
+      throw new IllegalArgumentException("Speed must be positive: " + speed);
+    this.speed = speed;
+  }
+
+  public double getSpeed() {
+    return this.speed;
+  }
+
+  @Override
+  public void handle(long now) {
+    if (lastPulse >= 0)
+      advance(now - lastPulse);
+    lastPulse = now;
+
+    for (int i = 0; i < MAX_UPDATES_PER_PULSE && !updates.isEmpty(); i++)
+      updates.poll().run();
+
+    Iterator<Animated> iterator = active.iterator();
+    while (iterator.hasNext()) {
+      if (!iterator.next().refresh())
+        iterator.remove();
+    }
+  }
+
+  /** Run the simulation for the wall time passed since the previous pulse */
+  private void advance(long elapsed) {
+    if (speed != UNTHROTTLED) {
+      simulatedTime += elapsed / 1_000_000.0 * speed;
+      simulation.advanceTo((long) simulatedTime);
+      return;
+    }
+    // Leave the rest of the frame to the views, and wait
+    // for them whenever they are behind with the people
+    long deadline = System.nanoTime() + UNTHROTTLED_BUDGET;
+    while (updates.size() < MAX_UPDATES_PER_PULSE && System.nanoTime() < deadline) {
+      simulatedTime += UNTHROTTLED_STEP;
+      simulation.advanceTo((long) simulatedTime);
+    }
+  }
+
+  /** Redraw the view on the coming pulses until it stops moving */
+  public void activate(Animated view) {
+    active.add(view);
+  }
+
+  /** Stop redrawing the view, e.g. when it is removed from the screen */
+  public void deactivate(Animated view) {
+    active.remove(view);
+  }
+
+  /** Add or remove views on a coming pulse, in the order they are posted */
+  public void post(Runnable update) {
+    updates.add(update);
+  }
+
+  /** A view which can be redrawn by the driver */
+  public interface Animated {
+
+    /** Redraw the view, return false if nothing will move until told */
+    boolean refresh();
+  }
+}
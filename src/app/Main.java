@@ -1,17 +1,27 @@
 package app;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Cursor;
 import javafx.scene.Group;
 import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 
+import sim.BuildingConfig;
+import sim.EventLog;
+import sim.EventLogReader;
+import sim.Simulation;
+
 public class Main extends Application {
   // The application originally developed with this screen size
   public static final double DEFAULT_SCREEN_WIDTH  = 1366.0f;
@@ -24,6 +34,10 @@ public class Main extends Application {
   public static double SCREEN_HEIGHT_SCALE = 1.00f;
   public static double COMBINED_SCALE      = 1.00f;
 
+  // Logs written or read while running, closed when the application stops
+  private EventLog eventLog;
+  private EventLogReader replayLog;
+
   @Override
   public void start(Stage primaryStage) throws Exception {
     // Obtain the real screen size
@@ -48,15 +62,65 @@ public class Main extends Application {
     stage.setFullScreen(true);
     stage.show();
 
+    // Create the background with desired size
+    Rectangle dragger = new Rectangle(SCREEN_WIDTH, SCREEN_HEIGHT);
+    dragger.setFill(Color.BLACK);
+    // Create the UI and everything, run with
+    //   --destination   to let people enter their floors instead of pressing up or down
+    //   --record=FILE   to log the events
+    //   --replay=FILE   to bring back the people of a recorded run
+    //   --canvas        to paint everything on one canvas, which keeps up with large crowds
+    //   --speed=N|max   to run N times as fast as the clock, or as fast as possible
+    List<String> args = getParameters().getRaw();
+    boolean destinationDispatch = args.contains("--destination");
+    Simulation simulation = new Simulation(
+        BuildingConfig.newConfig(BuildingConfig.SCENARIO_RESIDENCE_I)
+                      .withDestinationDispatch(destinationDispatch));
+    FrameDriver frameDriver = new FrameDriver(simulation);
+    for (String arg : args) {
+      if (arg.startsWith("--record=")) {
+        eventLog = new EventLog(Paths.get(arg.substring("--record=".length())), simulation.getConfig());
+        simulation.setRecorder(eventLog);
+      }
+      else if (arg.startsWith("--replay=")) {
+        replayLog = new EventLogReader(Paths.get(arg.substring("--replay=".length())));
+        simulation.replay(replayLog);
+      }
+      else if (arg.startsWith("--speed=")) {
+        String speed = arg.substring("--speed=".length());
+        frameDriver.setSpeed(speed.equals("max") ? FrameDriver.UNTHROTTLED : Double.parseDouble(speed));
+      }
+    }
+    Pane building = args.contains("--canvas") ?
+        new CanvasBuilding(simulation, frameDriver) : new Building(simulation, frameDriver);
+
+    // Press 1, 2, 3 or 4 to run at 1x, 10x, 100x or as fast as possible
     // Press F/f to toggle full screen
-    // Press Q/q to terminate the application
+    // Press Q/q to terminate the application, the metrics are printed out
+    // along with how often person views were reused, and the logs are closed
     rootGroup.setOnKeyPressed(keyEvent -> {
       if (keyEvent.getCode() != null) {
         switch (keyEvent.getCode()) {
+          case DIGIT1:
+            frameDriver.setSpeed(1.0);
+            break;
+          case DIGIT2:
+            frameDriver.setSpeed(10.0);
+            break;
+          case DIGIT3:
+            frameDriver.setSpeed(100.0);
+            break;
+          case DIGIT4:
+            frameDriver.setSpeed(FrameDriver.UNTHROTTLED);
+            break;
           case F:
             stage.setFullScreen(!stage.isFullScreen());
             break;
           case Q:
+            simulation.getMetrics().dump(System.out);
+            if (building instanceof Building)
+              System.out.println(((Building) building).getPersonPool());
+            closeLogs();
             Platform.exit();
             System.exit(0);
           default:
@@ -65,18 +129,34 @@ public class Main extends Application {
       }
     });
 
-    // Create the background with desired size
-    Rectangle dragger = new Rectangle(SCREEN_WIDTH, SCREEN_HEIGHT);
-    dragger.setFill(Color.BLACK);
-    // Create the UI and everything
-    Building building = new Building(
-        BuildingConfig.newConfig(BuildingConfig.SCENARIO_RESIDENCE_I));
-
     // Add all nodes to main root group
     rootGroup.getChildren().addAll(dragger, building);
     rootGroup.requestFocus();
   }
 
+  @Override
+  public void stop() {
+    closeLogs();
+  }
+
+  /** Write out the rest of the event log and let go of both files */
+  private void closeLogs() {
+    try {
+      if (eventLog != null)
+        eventLog.close();
+      if (replayLog != null) {
+        if (replayLog.isTruncated())
+          System.err.println("The replayed log is cut short, people stopped arriving at its last whole record");
+        replayLog.close();
+      }
+    }
+    catch (IOException e) {
+      e.printStackTrace();
+    }
+    eventLog = null;
+    replayLog = null;
+  }
+
 	public static void main(String[] args) {
 		launch(args);
 	}
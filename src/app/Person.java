@@ -2,16 +2,12 @@ package app;
 
 import static app.Main.*;
 
-import static constants.CommonConstant.*;
+import static constants.BuildingConstant.FLOOR_HEIGHT;
 import static constants.PersonConstant.*;
+import static constants.SimulationConstant.*;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
-import javafx.application.Platform;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
@@ -20,89 +16,170 @@ import javafx.scene.shape.Line;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 
-public class Person extends StackPane {
-
-  private final int startFloor;
-  private final int endFloor;
-  private final int appearSide;
-
-  private PersonState state;
-  private List<Elevator> lifts;          // all lifts
-  private List<Elevator> requestedLifts; // lifts this person is currently waiting
-  private Elevator chosenLift;           // the lift this person chooses in the end
+import sim.BuildingConfig;
+import sim.Lift;
+import sim.Passenger;
+
+/**
+ * The view of a person.
+ *
+ * It only draws where the simulated person is at the moment. The whole
+ * person moves with one translation, and while riding it belongs to
+ * the lift's cabin and is not redrawn at all.
+ *
+ * A view is used again for another passenger once its own has left,
+ * its shapes stay as they are and only the name changes.
+ */
+public class Person extends StackPane implements FrameDriver.Animated {
+
+  private Passenger passenger;
+  private final BuildingConfig config;
+  private final List<Elevator> lifts; // views of all lifts, in the same order as simulated
+
+  private double entryX;         // where this person appears
+  private double entryY;
+  private double positionInLift; // horizontal offset from the door center while inside
+  private boolean showsAssignment; // the assigned lift id is next to the name
   private PersonModel model;
 
-  public Person(String name,
-                int startFloor,
-                int endFloor,
+  public Person(Passenger passenger,
+                BuildingConfig config,
                 List<Elevator> lifts) {
 
-    this.startFloor = startFloor;
-    this.endFloor = endFloor;
-    this.appearSide = getRandomAppearSide();
-
-    this.state = PersonState.ENTER;
+    this.passenger = passenger;
+    this.config = config;
     this.lifts = lifts;
-    this.requestedLifts = new ArrayList<>();
-    this.chosenLift = null;
+    this.positionInLift = 0.0;
+    this.showsAssignment = false;
 
-    this.model = new PersonModel(name);
+    this.model = new PersonModel(passenger.getName());
     this.getChildren().add(model);
-    this.model.startMoveAnimation();
   }
 
-  private int getRandomAppearSide() {
-    return ((int)(Math.random() * 2) == 0) ? SIDE_LEFT : SIDE_RIGHT;
+  /** Show another passenger, as if this view had just been made for it */
+  public void reset(Passenger passenger) {
+    this.passenger = passenger;
+    this.positionInLift = 0.0;
+    this.showsAssignment = false;
+    this.setOpacity(1.0);
+    this.model.setLabel(passenger.getName());
   }
 
-  public int getStartFloor() {
-    return this.startFloor;
+  /**
+   * Take this view off the screen. It is usually in the crowd, but at a
+   * high speed its passenger may leave, or change lifts, within a single
+   * pulse, while the view is still riding in a lift's cabin.
+   */
+  public void removeFrom(Crowd crowd) {
+    if (crowd.remove(this))
+      return;
+    if (getParent() instanceof Pane)
+      ((Pane) getParent()).getChildren().remove(this);
   }
 
-  public int getEndFloor() {
-    return this.endFloor;
+  public Passenger getPassenger() {
+    return this.passenger;
+  }
+
+  public int getStartFloor() {
+    return this.passenger.getStartFloor();
   }
 
   public int getAppearSide() {
-    return this.appearSide;
+    return this.passenger.getAppearSide();
   }
 
-  /** Return this person object */
-  public Person getThisPerson() {
-    return this;
+  /** Put this person where it appears */
+  public void placeAt(double x, double y) {
+    this.setTranslateX(x);
+    this.setTranslateY(y);
+    this.entryX = getAbsoluteHeadCenterX();
+    this.entryY = y;
   }
 
-  /** Return this person's heading direction */
-  public int getDirection() {
-    return startFloor >= endFloor ? DIRECTION_DOWN : DIRECTION_UP;
+  /** Move a small distance inside the lift */
+  public void setPositionInLift(double position) {
+    this.positionInLift = position;
   }
 
-  /** Indicate if this person is done with the system */
-  public boolean isLifeCycleCompleted() {
-    return this.state == PersonState.EXIT;
+  public double getPositionInLift() {
+    return this.positionInLift;
   }
 
-  /** Move a small distance inside the lift */
-  public void adjustPositionInLift(double adjustment) {
-    this.model.moveH(adjustment);
+  /** Redraw the person according to its latest state */
+  @Override
+  public boolean refresh() {
+    PersonState state = passenger.getState();
+    Lift chosenLift = passenger.getChosenLift();
+
+    // Show which lift the destination terminal has given
+    if (!showsAssignment && passenger.getAssignedLift() != null) {
+      model.setLabel(passenger.getName() + " " + passenger.getAssignedLift().getLiftId());
+      showsAssignment = true;
+    }
+
+    double targetX;
+    double level;
+    switch (state) {
+      case ENTER:
+      case WAITING:
+        // Back in full after walking out of the previous leg's lift
+        this.setOpacity(1.0);
+        targetX = getHallX(passenger.getWalkedBays());
+        level = config.toLevel(passenger.getLegStartFloor());
+        break;
+      case WALK_IN:
+        double waitX = getHallX(passenger.getWalkedBays());
+        double doorX = getLiftView(chosenLift).getAbsoluteDoorCenterX();
+        targetX = waitX + (doorX - waitX) * passenger.getPhaseProgress();
+        level = config.toLevel(passenger.getLegStartFloor());
+        break;
+      case MOVE_WITH_LIFT:
+        // Carried along by the lift until walking out
+        getLiftView(chosenLift).board(this);
+        return false;
+      default:
+        // Walk back to where this person came from, fading out unless
+        // there is another lift to change to
+        getLiftView(chosenLift).alight(this);
+        double walked = WALK_OUT_DISTANCE * passenger.getPhaseProgress();
+        targetX = getLiftView(chosenLift).getAbsoluteDoorCenterX() + positionInLift +
+                  (getAppearSide() == SIDE_LEFT ? -walked : walked);
+        level = config.toLevel(passenger.getLegEndFloor());
+        if (passenger.isLastLeg())
+          this.setOpacity(1.0 - 0.9 * passenger.getPhaseProgress());
+        break;
+    }
+
+    this.setTranslateX(targetX - model.getHeadCenterX());
+    this.setTranslateY(entryY + (config.toLevel(passenger.getStartFloor()) - level) *
+                                (FLOOR_HEIGHT + SCREEN_HEIGHT_SCALE));
+
+    // Standing still while waiting
+    return state == PersonState.ENTER ||
+           state == PersonState.WALK_IN ||
+           state == PersonState.WALK_OUT;
   }
 
-  /** Move as much as the containing lift moves */
-  public void moveWithLift(double liftStep) {
-    this.model.moveV(liftStep);
+  /** Return the position after passing some lifts in the hall */
+  private double getHallX(double bays) {
+    int passed = (int) bays;
+    double from = getButtonX(passed);
+    if (passed >= lifts.size())
+      return from;
+    return from + (getButtonX(passed + 1) - from) * (bays - passed);
   }
 
-  /** Exit the containing lift */
-  public void walkoutLift() {
-    this.state = PersonState.WALK_OUT;
-    this.model.startMoveAnimation();
+  /** Return the position of the button of the n-th lift met, 0 for the entrance */
+  private double getButtonX(int n) {
+    if (n == 0)
+      return entryX;
+    int index = getAppearSide() == SIDE_LEFT ? n - 1 : lifts.size() - n;
+    return lifts.get(index).getAbsoluteButtonRightX();
   }
 
-  /** Return all synchronized lifts in a set */
-  private Set<Elevator> getAllSyncLifts() {
-    return lifts.stream()
-                .filter(l -> l.isSynchronized())
-                .collect(Collectors.toSet());
+  private Elevator getLiftView(Lift lift) {
+    return lifts.get(lift.getIndex());
   }
 
   public double getAbsoluteHeadCenterX() {
@@ -119,9 +196,6 @@ public class Person extends StackPane {
     private Line rightLeg;
     private Text txName;
 
-    private Thread moveAnimation;
-    private Thread waitAnimation;
-
     public PersonModel(String name) {
       head = new Circle(0, 0, HEAD_RADIUS);
       body = new Line(head.getCenterX(), head.getCenterY() + head.getRadius(),
@@ -163,132 +237,8 @@ public class Person extends StackPane {
       getChildren().addAll(head, body, leftArm, leftLeg, rightArm, rightLeg, txName);
     }
 
-    public void startMoveAnimation() {
-      moveAnimation = new Thread(() -> {
-        try {
-          while (true) {
-            Platform.runLater(() -> dispatch());
-            Thread.sleep((long) MOVE_TIME);
-          }
-        } catch (InterruptedException ex) {}
-      });
-      moveAnimation.start();
-    }
-
-    public void startWaitAnimation() {
-      waitAnimation = new Thread(() -> {
-        try {
-          while (true) {
-            Platform.runLater(() -> doWait());
-            Thread.sleep(WAIT_INTERVAL);
-          }
-        } catch (InterruptedException ex) {}
-      });
-      waitAnimation.start();
-    }
-
-    /** Dispatch different kinds of moving actions */
-    private void dispatch() {
-      if (state == PersonState.ENTER)
-        enter();
-      else if (state == PersonState.WALK_IN)
-        walkin();
-      else if (state == PersonState.WALK_OUT)
-        walkout();
-    }
-
-    /** Enter the screen while pressing each button */
-    private void enter() {
-      moveH(appearSide == SIDE_LEFT ? MOVE_STEP : -MOVE_STEP);
-
-      // Request all available lifts
-      for (Elevator lift : lifts) {
-        if (!requestedLifts.contains(lift)) {
-          boolean isCloseEnough =
-              Math.abs(lift.getAbsoluteButtonRightX() -
-                            getAbsoluteHeadCenterX()) < head.getRadius();
-
-          if (isCloseEnough) {
-            // Press one button is sufficient for synchronized lifts
-            requestedLifts.addAll(
-                lift.isSynchronized() ? getAllSyncLifts() : Arrays.asList(lift));
-            lift.addRequest(startFloor, getDirection(), getAllSyncLifts());
-          }
-        }
-      }
-      // Enter the waiting phase when all lifts have been requested
-      if (lifts.size() == requestedLifts.size()) {
-        state = PersonState.WAITING;
-        startWaitAnimation();
-        moveAnimation.interrupt();
-      }
-    }
-
-    /** Check lift status while waiting, pick one in the end */
-    private void doWait() {
-      boolean keepWaiting = true;
-
-      for (Elevator lift : requestedLifts) {
-        if (lift.isDoorOpened() &&
-            lift.getCurrentFloor() == startFloor &&
-            lift.getDirection() == getDirection()) {
-
-          chosenLift = lift;
-          chosenLift.addPassenger(getThisPerson());
-          keepWaiting = false;
-          break;
-        }
-      }
-      if (!keepWaiting) {
-        state = PersonState.WALK_IN;
-        startMoveAnimation();
-        waitAnimation.interrupt();
-      }
-    }
-
-    /** Walk in the chosen lift */
-    private void walkin() {
-      double doorCenterX = chosenLift.getAbsoluteDoorCenterX();
-      double headCenterX = getAbsoluteHeadCenterX();
-      double diff = headCenterX - doorCenterX ;
-      moveH(diff < 0 ? MOVE_STEP : -MOVE_STEP);
-
-      if (Math.abs(diff) < head.getRadius() / 2) {
-        state = PersonState.MOVE_WITH_LIFT;
-        moveAnimation.interrupt();
-      }
-    }
-
-    /** Walk out the chosen lift while fading out the screen */
-    private void walkout() {
-      moveH(appearSide == SIDE_LEFT ? -MOVE_STEP : MOVE_STEP);
-      this.setOpacity(this.getOpacity() * 0.95);
-      if (this.getOpacity() < 0.1) {
-        state = PersonState.EXIT;
-        moveAnimation.interrupt();
-      }
-    }
-
-    /** Move horizontally, step > 0 ? Right : Left */
-    public void moveH(double step) {
-      head.setCenterX(head.getCenterX() + step);
-      body.setTranslateX(body.getTranslateX() + step);
-      leftArm.setTranslateX(leftArm.getTranslateX() + step);
-      leftLeg.setTranslateX(leftLeg.getTranslateX() + step);
-      rightArm.setTranslateX(rightArm.getTranslateX() + step);
-      rightLeg.setTranslateX(rightLeg.getTranslateX() + step);
-      txName.setTranslateX(txName.getTranslateX() + step);
-    }
-
-    /** Move vertically, step > 0 ? Down : Up */
-    public void moveV(double step) {
-      head.setCenterY(head.getCenterY() + step);
-      body.setTranslateY(body.getTranslateY() + step);
-      leftArm.setTranslateY(leftArm.getTranslateY() + step);
-      leftLeg.setTranslateY(leftLeg.getTranslateY() + step);
-      rightArm.setTranslateY(rightArm.getTranslateY() + step);
-      rightLeg.setTranslateY(rightLeg.getTranslateY() + step);
-      txName.setTranslateY(txName.getTranslateY() + step);
+    public void setLabel(String label) {
+      txName.setText(label);
     }
 
     public double getHeadCenterX() {
@@ -0,0 +1,76 @@
+package app;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import sim.BuildingConfig;
+import sim.Passenger;
+
+/**
+ * Views of people who have left, kept to show the people arriving later.
+ *
+ * A person's view is a handful of shapes, making and dropping one for
+ * every arrival keeps the garbage collector busy over a long run. At most
+ * the capacity is kept, as many as the building holds at a busy hour,
+ * the rest is left to the collector.
+ */
+public class PersonPool {
+  // Views kept at most, unless told otherwise
+  public static final int DEFAULT_CAPACITY = 512;
+
+  private final BuildingConfig config;
+  private final List<Elevator> lifts;
+  private final int capacity;
+  private final Deque<Person> free; // views not showing anyone
+  private long hits;                // views given out again
+  private long misses;              // views made because none was free
+
+  public PersonPool(BuildingConfig config, List<Elevator> lifts) {
+    this(config, lifts, DEFAULT_CAPACITY);
+  }
+
+  public PersonPool(BuildingConfig config, List<Elevator> lifts, int capacity) {
+    this.config   = config;
+    this.lifts    = lifts;
+    this.capacity = capacity;
+    this.free     = new ArrayDeque<>();
+    this.hits     = 0L;
+    this.misses   = 0L;
+  }
+
+  /** Return a view showing the passenger, a free one if there is any */
+  public Person acquire(Passenger passenger) {
+    Person person = free.poll();
+    if (person == null) {
+      misses++;
+      return new Person(passenger, config, lifts);
+    }
+    hits++;
+    person.reset(passenger);
+    return person;
+  }
+
+  /** Take back a view which is no longer on the screen */
+  public void release(Person person) {
+    if (free.size() < capacity)
+      free.push(person);
+  }
+
+  public long getHits() {
+    return this.hits;
+  }
+
+  public long getMisses() {
+    return this.misses;
+  }
+
+  public int getFreeCount() {
+    return this.free.size();
+  }
+
+  @Override
+  public String toString() {
+    return "Person views: " + hits + " reused, " + misses + " made, " + free.size() + " free";
+  }
+}
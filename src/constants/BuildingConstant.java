@@ -5,7 +5,7 @@ import static constants.ElevatorConstant.ELEVATOR_HEIGHT;
 public class BuildingConstant {
   // Numbers of total floors
   public static final int MIN_FLOORS = 3;
-  public static final int MAX_FLOORS = 13;
+  public static final int MAX_FLOORS = 250;
 
   // Numbers of underground floors
   public static final int MIN_UNDERGROUNDS = 0;
@@ -13,11 +13,8 @@ public class BuildingConstant {
 
   // Numbers of elevators
   public static final int MIN_ELEVATORS = 1;
-  public static final int MAX_ELEVATORS = 6;
+  public static final int MAX_ELEVATORS = 64;
 
   // The height of each floor depends on the height of elevator
   public static final double FLOOR_HEIGHT = ELEVATOR_HEIGHT;
-
-  // Traffic control interval
-  public static final long CONTROLLER_INTERVAL = 500L;
 }
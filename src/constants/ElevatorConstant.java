@@ -1,8 +1,5 @@
 package constants;
 
-import static app.Main.SCREEN_WIDTH_SCALE;
-import static app.Main.SCREEN_HEIGHT_SCALE;
-
 import static constants.PersonConstant.PERSON_WIDTH;
 import static constants.PersonConstant.PERSON_HEIGHT;
 
@@ -21,23 +18,4 @@ public class ElevatorConstant {
 
   // Distance between each lift
   public static final double ELEVATOR_GAP = 4.50 * PERSON_WIDTH;
-
-  // Door's opening & closing control
-  public static final double DOOR_STEP = 1.00f;
-  public static final double DOOR_TIME = 30.0 / SCREEN_WIDTH_SCALE;
-
-  // Door's waiting duration between fully opened and start closing
-  public static final double DOOR_WAIT_TIME = 2000.0f;
-
-  // Lift's vertical movement control
-  public static final double MOVE_STEP = 1.00f;
-  public static final double MOVE_TIME = 15.0 / SCREEN_HEIGHT_SCALE;
-
-  // Lift's status checking interval
-  public static final long OPERATION_INTERVAL = 500L;
-
-  /** Lift must be in one of these states in any given time */
-  public static enum ElevatorState {
-    IDLE, OPENING, WAITING, CLOSING, MOVING
-  }
 }
@@ -1,7 +1,6 @@
 package constants;
 
 import static app.Main.COMBINED_SCALE;
-import static app.Main.SCREEN_WIDTH_SCALE;
 import static app.Main.SCREEN_HEIGHT_SCALE;
 
 /**
@@ -26,19 +25,6 @@ public class PersonConstant {
   public static final double PERSON_HEIGHT =
       2 * HEAD_RADIUS + BODY_LENGTH + LEG_LENGTH * Math.cos(LEG_ANGLE);
 
-  // Side left or right a person enters the screen
-  public static final int SIDE_LEFT  = 1;
-  public static final int SIDE_RIGHT = 2;
-
-  // Person's horizontal movement control
-  public static final double MOVE_STEP = 5.0f;
-  public static final double MOVE_TIME = 15.0 / SCREEN_WIDTH_SCALE;
-
-  // Check lift status for every this interval while waiting
-  public static final long WAIT_INTERVAL = 500L;
-
-  /** Different phases a person interacts with the system */
-  public static enum PersonState {
-    ENTER, WAITING, WALK_IN, MOVE_WITH_LIFT, WALK_OUT, EXIT
-  }
+  // Distance a person walks out of the lift while fading out
+  public static final double WALK_OUT_DISTANCE = 10.0 * PERSON_WIDTH;
 }
@@ -0,0 +1,61 @@
+package constants;
+
+/**
+ * Timing of the headless simulation, in milliseconds of simulated time.
+ *
+ * Unlike the drawing constants, none of these depend on the screen size,
+ * so the simulation can run on a machine without any display.
+ */
+public class SimulationConstant {
+  // Lift's motion, in metres and seconds: rated speed, acceleration and jerk,
+  // and the distance between two adjacent floors
+  public static final double RATED_SPEED        = 2.5;
+  public static final double RATED_ACCELERATION = 1.0;
+  public static final double RATED_JERK         = 1.5;
+  public static final double STOREY_HEIGHT      = 3.5;
+
+  // Door's opening & closing durations
+  public static final long DOOR_OPEN_TIME  = 1000L;
+  public static final long DOOR_CLOSE_TIME = 1000L;
+
+  // Door's waiting duration between fully opened and start closing
+  public static final long DOOR_HOLD_TIME = 2000L;
+
+  // Lift's status checking interval
+  public static final long OPERATION_INTERVAL = 500L;
+
+  // Traffic control interval
+  public static final long CONTROLLER_INTERVAL = 500L;
+
+  // A sync call moves to another lift only if it arrives this much sooner
+  public static final long REASSIGN_THRESHOLD = 8000L;
+
+  // Arrival estimates made per control interval while checking calls to move,
+  // the rest of the calls are checked in the next interval
+  public static final int REASSIGN_ESTIMATES = 512;
+
+  // Person's walking time to pass one lift in the hall
+  public static final long BAY_WALK_TIME = 450L;
+
+  // Person's walking time through the doors
+  public static final long WALK_IN_TIME  = 600L;
+  public static final long WALK_OUT_TIME = 700L;
+
+  // Length of a simulated hour and day
+  public static final long ONE_HOUR = 60L * 60 * 1000;
+  public static final long ONE_DAY  = 24L * ONE_HOUR;
+
+  // Side left or right a person enters the building
+  public static final int SIDE_LEFT  = 1;
+  public static final int SIDE_RIGHT = 2;
+
+  /** Lift must be in one of these states in any given time */
+  public static enum ElevatorState {
+    IDLE, OPENING, WAITING, CLOSING, MOVING
+  }
+
+  /** Different phases a person interacts with the system */
+  public static enum PersonState {
+    ENTER, WAITING, WALK_IN, MOVE_WITH_LIFT, WALK_OUT, EXIT
+  }
+}
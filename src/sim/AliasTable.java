@@ -0,0 +1,73 @@
+package sim;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draw an index with probability proportional to its weight in O(1),
+ * by Walker's alias method.
+ *
+ * Every column holds its own index with some probability and one
+ * other index, the alias, for the rest. The table never changes once
+ * built, so it can be shared by any number of threads.
+ */
+final class AliasTable {
+
+  private final double[] probabilities;
+  private final int[] aliases;
+
+  AliasTable(double[] weights) {
+    int n = weights.length;
+    double total = 0.0;
+    for (double weight : weights) {
+      if (weight < 0)
+        throw new IllegalArgumentException("Negative weight: " + weight);
+      total += weight;
+    }
+    if (n == 0 || total <= 0)
+      throw new IllegalArgumentException("Nothing to draw from");
+
+    this.probabilities = new double[n];
+    this.aliases = new int[n];
+
+    // Scale so that the average column is exactly full, then let
+    // every overfull column fill up one underfull column
+    double[] scaled = new double[n];
+    int[] small = new int[n];
+    int[] large = new int[n];
+    int smallCount = 0;
+    int largeCount = 0;
+    for (int i = 0; i < n; i++) {
+      scaled[i] = weights[i] * n / total;
+      if (scaled[i] < 1.0)
+        small[smallCount++] = i;
+      else
+        large[largeCount++] = i;
+    }
+
+    while (smallCount > 0 && largeCount > 0) {
+      int less = small[--smallCount];
+      int more = large[--largeCount];
+      probabilities[less] = scaled[less];
+      aliases[less] = more;
+      scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+      if (scaled[more] < 1.0)
+        small[smallCount++] = more;
+      else
+        large[largeCount++] = more;
+    }
+    // Whatever is left is full, up to rounding errors
+    while (largeCount > 0)
+      probabilities[large[--largeCount]] = 1.0;
+    while (smallCount > 0)
+      probabilities[small[--smallCount]] = 1.0;
+  }
+
+  int sample(SplittableRandom random) {
+    int column = random.nextInt(probabilities.length);
+    return random.nextDouble() < probabilities[column] ? column : aliases[column];
+  }
+
+  int size() {
+    return this.probabilities.length;
+  }
+}
@@ -0,0 +1,54 @@
+package sim;
+
+import static constants.SimulationConstant.ONE_HOUR;
+
+import java.util.SplittableRandom;
+
+/**
+ * Let people arrive as a Poisson process whose rate follows the profile.
+ *
+ * Candidates are drawn at the peak rate of the day and each one is kept
+ * with the ratio of the current rate to the peak rate, which thins the
+ * process down to the rate of the moment.
+ */
+public class ArrivalGenerator {
+
+  private final TrafficProfile profile;
+  private final EventClock clock;
+  private final SplittableRandom random;
+  private final long startTimeOfDay; // time of day when the clock reads zero
+  private final Runnable arrival;    // lets one person in
+
+  public ArrivalGenerator(TrafficProfile profile,
+                          EventClock clock,
+                          SplittableRandom random,
+                          long startTimeOfDay,
+                          Runnable arrival) {
+    this.profile = profile;
+    this.clock = clock;
+    this.random = random;
+    this.startTimeOfDay = startTimeOfDay;
+    this.arrival = arrival;
+  }
+
+  public void start() {
+    scheduleNextCandidate();
+  }
+
+  public long getTimeOfDay() {
+    return startTimeOfDay + clock.now();
+  }
+
+  private void scheduleNextCandidate() {
+    double peakRate = profile.getPeakRate() / ONE_HOUR; // people per millisecond
+    if (peakRate <= 0)
+      return;
+
+    double gap = -Math.log(1.0 - random.nextDouble()) / peakRate;
+    clock.schedule((long) Math.ceil(gap), () -> {
+      if (random.nextDouble() * profile.getPeakRate() < profile.getRate(getTimeOfDay()))
+        arrival.run();
+      scheduleNextCandidate();
+    });
+  }
+}
@@ -0,0 +1,377 @@
+package sim;
+
+import static constants.SimulationConstant.DOOR_CLOSE_TIME;
+import static constants.SimulationConstant.DOOR_HOLD_TIME;
+import static constants.SimulationConstant.DOOR_OPEN_TIME;
+import static constants.SimulationConstant.RATED_ACCELERATION;
+import static constants.SimulationConstant.RATED_JERK;
+import static constants.SimulationConstant.RATED_SPEED;
+import static constants.SimulationConstant.STOREY_HEIGHT;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Building configuration.
+ *
+ * Different scenarios associate with different configurations.
+ *
+ * Unless the building is zoned, all lifts form one bank serving
+ * every floor. In a zoned building each lift belongs to exactly one
+ * bank, and every floor can be reached from any other one.
+ */
+public class BuildingConfig {
+  public static final int SCENARIO_RESIDENCE_I  = 1;
+  public static final int SCENARIO_RESIDENCE_II = 2;
+  public static final int SCENARIO_COMMERCIAL   = 3;
+  public static final int SCENARIO_ACADEMIC     = 4;
+
+  private final int scenario;     // decides the daily traffic
+  private final int floors;       // floors in total
+  private final int undergrounds; // floors in underground
+  private final int syncLifts;    // number of sync lifts
+  private final int asyncLifts;   // number of async lifts
+  private final boolean destinationDispatch; // people enter destinations instead of directions
+  private final long doorOpenTime;  // how long the doors take to open
+  private final long doorHoldTime;  // how long the doors stay open
+  private final long doorCloseTime; // how long the doors take to close
+  private final List<Zone> zones;   // banks of lifts, one for the whole building if not zoned
+  private final MotionProfile motion; // how the lifts move, with the flight times of this building
+  private final TripMatrix trips;  // how often people go between floors, null for the usual
+  private final Zone[] liftZones;   // bank of each lift, by index
+  private List<String> liftIds;      // sync lifts first, then async ones
+  private List<String> syncLiftIds;
+  private List<String> asyncLiftIds;
+
+  private BuildingConfig(int scenario,
+                         int floors,
+                         int undergrounds,
+                         int syncLifts,
+                         int asyncLifts,
+                         boolean destinationDispatch,
+                         long doorOpenTime,
+                         long doorHoldTime,
+                         long doorCloseTime,
+                         List<Zone> zones,
+                         MotionProfile motion,
+                         TripMatrix trips) {
+    if (floors < 2 || undergrounds < 0 || undergrounds >= floors)
+      throw new IllegalArgumentException("A building needs two floors or more, and a ground floor: " +
+                                         floors + " floors, " + undergrounds + " underground");
+
+    this.scenario     = scenario;
+    this.floors       = floors;
+    this.undergrounds = undergrounds;
+    this.syncLifts    = syncLifts;
+    this.asyncLifts   = asyncLifts;
+    this.destinationDispatch = destinationDispatch;
+    this.doorOpenTime  = doorOpenTime;
+    this.doorHoldTime  = doorHoldTime;
+    this.doorCloseTime = doorCloseTime;
+    this.motion = motion != null ? motion :
+        new MotionProfile(RATED_SPEED, RATED_ACCELERATION, RATED_JERK, STOREY_HEIGHT, floors);
+    this.trips = trips;
+    if (trips != null && trips.getFloors() != floors)
+      throw new IllegalArgumentException("Trip matrices of " + trips.getFloors() +
+                                         " floors for a building of " + floors);
+    this.liftIds      = new ArrayList<>();
+
+    for (int i = 0; i < syncLifts; i++)
+      this.liftIds.add("SYNC#" + (i + 1));
+    for (int j = 0; j < asyncLifts; j++)
+      this.liftIds.add("ASYNC#" + (j + 1));
+
+    this.liftIds      = Collections.unmodifiableList(liftIds);
+    this.syncLiftIds  = liftIds.subList(0, syncLifts);
+    this.asyncLiftIds = liftIds.subList(syncLifts, liftIds.size());
+
+    if (zones == null)
+      zones = Arrays.asList(new Zone("ALL", 0, getLiftCount(), toFloor(0), toFloor(floors - 1)));
+    this.zones     = Collections.unmodifiableList(new ArrayList<>(zones));
+    this.liftZones = new Zone[getLiftCount()];
+    for (Zone zone : this.zones) {
+      for (int i = zone.getFirstLift(); i < zone.getFirstLift() + zone.getLiftCount(); i++) {
+        if (i >= liftZones.length || liftZones[i] != null)
+          throw new IllegalArgumentException("Lift " + i + " is not in exactly one zone");
+        liftZones[i] = zone;
+      }
+    }
+    checkZones();
+  }
+
+  /** Make sure every lift has a bank and every floor can be reached from every other */
+  private void checkZones() {
+    for (int i = 0; i < liftZones.length; i++) {
+      if (liftZones[i] == null)
+        throw new IllegalArgumentException("Lift " + i + " is in no zone");
+    }
+    for (Zone zone : zones) {
+      if (zone.getBottomFloor() < toFloor(0) || zone.getTopFloor() > toFloor(floors - 1))
+        throw new IllegalArgumentException("Zone " + zone + " is out of the building");
+    }
+    for (int level = 0; level < floors; level++) {
+      if (getRoute(toFloor(0), toFloor(level)) == null)
+        throw new IllegalArgumentException("No zone reaches floor " + toFloor(level));
+    }
+  }
+
+  public static BuildingConfig newConfig(int scenario) {
+    switch(scenario) {
+      case SCENARIO_RESIDENCE_I:
+        return new BuildingConfig(SCENARIO_RESIDENCE_I, 10, 2, 2, 1, false,
+                                  DOOR_OPEN_TIME, DOOR_HOLD_TIME, DOOR_CLOSE_TIME, null, null, null);
+      case SCENARIO_RESIDENCE_II:
+        return new BuildingConfig(SCENARIO_RESIDENCE_II, 10, 2, 2, 1, false,
+                                  DOOR_OPEN_TIME, DOOR_HOLD_TIME, DOOR_CLOSE_TIME, null, null, null);
+      case SCENARIO_COMMERCIAL:
+        return new BuildingConfig(SCENARIO_COMMERCIAL, 10, 2, 2, 1, false,
+                                  DOOR_OPEN_TIME, DOOR_HOLD_TIME, DOOR_CLOSE_TIME, null, null, null);
+      case SCENARIO_ACADEMIC:
+        return new BuildingConfig(SCENARIO_ACADEMIC, 10, 2, 2, 1, false,
+                                  DOOR_OPEN_TIME, DOOR_HOLD_TIME, DOOR_CLOSE_TIME, null, null, null);
+      default:
+        return new BuildingConfig(SCENARIO_RESIDENCE_I, 10, 2, 2, 1, false,
+                                  DOOR_OPEN_TIME, DOOR_HOLD_TIME, DOOR_CLOSE_TIME, null, null, null);
+    }
+  }
+
+  /** Return a building of any size, sync lifts come first */
+  public static BuildingConfig newConfig(int floors,
+                                         int undergrounds,
+                                         int syncLifts,
+                                         int asyncLifts) {
+    return new BuildingConfig(SCENARIO_RESIDENCE_I,
+                              floors, undergrounds, syncLifts, asyncLifts, false,
+                              DOOR_OPEN_TIME, DOOR_HOLD_TIME, DOOR_CLOSE_TIME, null, null, null);
+  }
+
+  /** Return the same building, with or without destination dispatch for its sync lifts */
+  public BuildingConfig withDestinationDispatch(boolean enabled) {
+    return new BuildingConfig(scenario, floors, undergrounds, syncLifts, asyncLifts, enabled,
+                              doorOpenTime, doorHoldTime, doorCloseTime, zones, motion, trips);
+  }
+
+  /** Return the same building, with the daily traffic of another scenario */
+  public BuildingConfig withScenario(int newScenario) {
+    return new BuildingConfig(newScenario, floors, undergrounds,
+                              syncLifts, asyncLifts, destinationDispatch,
+                              doorOpenTime, doorHoldTime, doorCloseTime, zones, motion, trips);
+  }
+
+  /** Return the same building, with doors opening, staying open and closing for these times */
+  public BuildingConfig withDoorTimes(long openTime, long holdTime, long closeTime) {
+    return new BuildingConfig(scenario, floors, undergrounds,
+                              syncLifts, asyncLifts, destinationDispatch,
+                              openTime, holdTime, closeTime, zones, motion, trips);
+  }
+
+  /** Return the same building, with lifts of another speed, acceleration and jerk */
+  public BuildingConfig withMotion(double speed, double acceleration, double jerk) {
+    return new BuildingConfig(scenario, floors, undergrounds,
+                              syncLifts, asyncLifts, destinationDispatch,
+                              doorOpenTime, doorHoldTime, doorCloseTime, zones,
+                              new MotionProfile(speed, acceleration, jerk,
+                                                motion.getStoreyHeight(), floors),
+                              trips);
+  }
+
+  /** Return the same building with its lifts split into the given banks */
+  public BuildingConfig withZones(Zone... newZones) {
+    return new BuildingConfig(scenario, floors, undergrounds,
+                              syncLifts, asyncLifts, destinationDispatch,
+                              doorOpenTime, doorHoldTime, doorCloseTime,
+                              Arrays.asList(newZones), motion, trips);
+  }
+
+  /** Return the same building, with people travelling between floors as often as given */
+  public BuildingConfig withTrips(TripMatrix newTrips) {
+    return new BuildingConfig(scenario, floors, undergrounds,
+                              syncLifts, asyncLifts, destinationDispatch,
+                              doorOpenTime, doorHoldTime, doorCloseTime, zones, motion, newTrips);
+  }
+
+  /**
+   * Return the same building with its sync lifts split into banks
+   * stacked on top of each other. The lowest bank serves the floors
+   * underground too, the others run express from the ground floor to
+   * their own floors. The async lifts serve every floor.
+   */
+  public BuildingConfig withBanks(int banks) {
+    int above = floors - undergrounds;
+    if (banks < 1 || banks > syncLifts || banks > above)
+      throw new IllegalArgumentException("Cannot split into " + banks + " banks");
+
+    List<Zone> newZones = new ArrayList<>();
+    int firstLift = 0;
+    int lowFloor  = 1;
+    for (int i = 0; i < banks; i++) {
+      int lifts = syncLifts / banks + (i < syncLifts % banks ? 1 : 0);
+      int highFloor = lowFloor - 1 + above / banks + (i < above % banks ? 1 : 0);
+      if (i == 0)
+        newZones.add(new Zone("LOW", firstLift, lifts, toFloor(0), highFloor));
+      else
+        newZones.add(new Zone((i == banks - 1 ? "HIGH" : "MID") + (banks > 3 ? i : ""),
+                              firstLift, lifts, lowFloor, highFloor, 1));
+      firstLift += lifts;
+      lowFloor = highFloor + 1;
+    }
+    if (asyncLifts > 0)
+      newZones.add(new Zone("SERVICE", syncLifts, asyncLifts, toFloor(0), toFloor(floors - 1)));
+    return withZones(newZones.toArray(new Zone[0]));
+  }
+
+  public int getScenario() {
+    return this.scenario;
+  }
+
+  public int getFloors() {
+    return this.floors;
+  }
+
+  public int getUndergrounds() {
+    return this.undergrounds;
+  }
+
+  /** Convert a floor number into a level counted from the lowest floor, which is 0 */
+  public int toLevel(int floor) {
+    return floor > 0 ? floor - 1 + undergrounds : floor + undergrounds;
+  }
+
+  /** Convert a level counted from the lowest floor back into a floor number */
+  public int toFloor(int level) {
+    int floor = level - undergrounds;
+    return floor >= 0 ? floor + 1 : floor;
+  }
+
+  public int getLiftCount() {
+    return this.syncLifts + this.asyncLifts;
+  }
+
+  public int getSyncLiftCount() {
+    return this.syncLifts;
+  }
+
+  /** Lifts are referred by their indexes in this list */
+  public List<String> getLiftIds() {
+    return this.liftIds;
+  }
+
+  /** Sync lifts come first, so their indexes run from 0 to the sync lift count */
+  public List<String> getSyncLiftIds() {
+    return this.syncLiftIds;
+  }
+
+  public List<String> getAsyncLiftIds() {
+    return this.asyncLiftIds;
+  }
+
+  public boolean isDestinationDispatch() {
+    return this.destinationDispatch;
+  }
+
+  public long getDoorOpenTime() {
+    return this.doorOpenTime;
+  }
+
+  public long getDoorHoldTime() {
+    return this.doorHoldTime;
+  }
+
+  public long getDoorCloseTime() {
+    return this.doorCloseTime;
+  }
+
+  /** Time a stop adds to a trip, from the doors opening until they are closed */
+  public long getStopTime() {
+    return this.doorOpenTime + this.doorHoldTime + this.doorCloseTime;
+  }
+
+  /** Return how often people go between floors, null for the usual trips of the building */
+  public TripMatrix getTrips() {
+    return this.trips;
+  }
+
+  public MotionProfile getMotion() {
+    return this.motion;
+  }
+
+  /** Return how long a lift takes from one floor to the other without stopping */
+  public long getFlightTime(int fromFloor, int toFloor) {
+    return this.motion.getFlightTime(toLevel(toFloor) - toLevel(fromFloor));
+  }
+
+  public List<Zone> getZones() {
+    return this.zones;
+  }
+
+  /** Return the bank the lift of the given index belongs to */
+  public Zone getZone(int index) {
+    return this.liftZones[index];
+  }
+
+  /** Indicate if the lift of the given index stops at the floor */
+  public boolean serves(int index, int floor) {
+    return this.liftZones[index].serves(floor);
+  }
+
+  /**
+   * Return the floors of a trip: the start, the floors to change lifts
+   * on the way and the end. The fewest changes are taken, with the banks
+   * of sync lifts if they reach the end, null if nothing reaches it.
+   */
+  public int[] getRoute(int startFloor, int endFloor) {
+    int[] route = getRoute(startFloor, endFloor, true);
+    return route != null ? route : getRoute(startFloor, endFloor, false);
+  }
+
+  private int[] getRoute(int startFloor, int endFloor, boolean syncOnly) {
+    int count = zones.size();
+    int[] previous = new int[count]; // bank taken before this one, -1 for the first, -2 if none
+    int[] boarded  = new int[count]; // floor this bank is boarded at
+    Arrays.fill(previous, -2);
+
+    // Breadth first over the banks, so the first one reaching the end has the fewest changes
+    Deque<Integer> queue = new ArrayDeque<>();
+    for (int i = 0; i < count; i++) {
+      if (syncOnly && !isSyncLift(zones.get(i).getFirstLift()))
+        continue;
+      if (zones.get(i).serves(startFloor)) {
+        previous[i] = -1;
+        boarded[i] = startFloor;
+        queue.add(i);
+      }
+    }
+    while (!queue.isEmpty()) {
+      int i = queue.poll();
+      if (zones.get(i).serves(endFloor)) {
+        int legs = 1;
+        for (int j = i; previous[j] >= 0; j = previous[j])
+          legs++;
+        int[] route = new int[legs + 1];
+        route[legs] = endFloor;
+        for (int j = i; j >= 0; j = previous[j])
+          route[--legs] = boarded[j];
+        return route;
+      }
+      for (int j = 0; j < count; j++) {
+        if (previous[j] != -2 || (syncOnly && !isSyncLift(zones.get(j).getFirstLift())))
+          continue;
+        int transfer = zones.get(i).getTransferFloor(zones.get(j), boarded[i]);
+        if (transfer != 0) {
+          previous[j] = i;
+          boarded[j] = transfer;
+          queue.add(j);
+        }
+      }
+    }
+    return null;
+  }
+
+  public boolean isSyncLift(int index) {
+    return index < this.syncLifts;
+  }
+}
@@ -0,0 +1,73 @@
+package sim;
+
+import static constants.CommonConstant.DIRECTION_UP;
+import static constants.CommonConstant.DIRECTION_DOWN;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All elevator buttons in the building, indexed by lift, floor and direction.
+ *
+ * Buttons are kept in one flat array, so finding a button is a
+ * simple calculation no matter how many lifts and floors there are.
+ */
+public class ButtonPanel {
+
+  private final BuildingConfig config;
+  private final int floors;
+  private final HallButton[] buttons; // [lift][level][up, down] flattened
+
+  public ButtonPanel(BuildingConfig config) {
+    this.config  = config;
+    this.floors  = config.getFloors();
+    this.buttons = new HallButton[config.getLiftCount() * floors * 2];
+
+    List<String> liftIds = config.getLiftIds();
+    for (int lift = 0; lift < liftIds.size(); lift++) {
+      Zone zone = config.getZone(lift);
+      for (int level = 0; level < floors; level++) {
+        int floor = config.toFloor(level);
+        boolean served = zone.serves(floor);
+
+        // highest floor of the bank does not have up button,
+        // lowest floor of the bank does not have down button
+        buttons[indexOf(lift, level, DIRECTION_UP)] =
+            HallButton.createUpButton(liftIds.get(lift), floor,
+                                      served && floor != zone.getTopFloor());
+        buttons[indexOf(lift, level, DIRECTION_DOWN)] =
+            HallButton.createDownButton(liftIds.get(lift), floor,
+                                        served && floor != zone.getBottomFloor());
+      }
+    }
+  }
+
+  /** Return the button of the lift on the floor, null if there is no such one */
+  public HallButton get(int lift, int floor, int direction) {
+    if (direction != DIRECTION_UP && direction != DIRECTION_DOWN)
+      return null;
+    return buttons[indexOf(lift, config.toLevel(floor), direction)];
+  }
+
+  /** Return the position of a button in the list of all buttons */
+  public int indexOf(int lift, int level, int direction) {
+    return (lift * floors + level) * 2 + (direction == DIRECTION_UP ? 0 : 1);
+  }
+
+  public void turnOn(int lift, int floor, int direction) {
+    HallButton button = get(lift, floor, direction);
+    if (button != null)
+      button.turnOn();
+  }
+
+  public void turnOff(int lift, int floor, int direction) {
+    HallButton button = get(lift, floor, direction);
+    if (button != null)
+      button.turnOff();
+  }
+
+  /** Return all buttons, ordered by their indexes */
+  public List<HallButton> getButtons() {
+    return Arrays.asList(buttons);
+  }
+}
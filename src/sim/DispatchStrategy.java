@@ -0,0 +1,18 @@
+package sim;
+
+import java.util.Set;
+
+/**
+ * A way to choose which synchronized lift serves a new request.
+ *
+ * Strategies can be swapped per simulation so that their
+ * waiting times can be compared on the same building.
+ * Implementations must not keep state between calls, one instance
+ * is shared by all lifts of a building. A strategy is only called on
+ * the thread running its simulation, and reads the lifts as they are.
+ */
+public interface DispatchStrategy {
+
+  /** Return the lift to serve the request, null if there is none */
+  Lift pickBestSyncLift(int requestFloor, int requestDirection, Set<Lift> allSyncLifts);
+}
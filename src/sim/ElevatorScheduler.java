@@ -0,0 +1,130 @@
+package sim;
+
+import static constants.CommonConstant.DIRECTION_UP;
+import static constants.CommonConstant.DIRECTION_DOWN;
+import static constants.CommonConstant.NO_DIRECTION;
+
+import java.util.Set;
+
+/**
+ * Pick the optimal synchronized lift to serve a new request.
+ *
+ * Optimal here means the best tradeoff between the efficiency
+ * of the system and the waiting time of individuals.
+ *
+ * It goes through a few fixed cases and takes the first match.
+ * The scheduler keeps no state between calls, the request and the
+ * lifts are passed along to every case, so nothing a call leaves
+ * behind can change the outcome of the next one.
+ */
+public class ElevatorScheduler implements DispatchStrategy {
+
+  @Override
+  public Lift pickBestSyncLift(int requestFloor,
+                               int requestDirection,
+                               Set<Lift> allSyncLifts) {
+    if (allSyncLifts.size() == 0)
+      return null;
+    else if (allSyncLifts.size() == 1)
+      return allSyncLifts.iterator().next();
+    else {
+      return requestDirection == DIRECTION_UP ?
+          pickBestOneForUpRequest(requestFloor, allSyncLifts) :
+          pickBestOneForDownRequest(requestFloor, allSyncLifts);
+    }
+  }
+
+  private Lift pickBestOneForDownRequest(int floor, Set<Lift> lifts) {
+    // Case I: lift's going down too but still above us
+    for (Lift lift : lifts) {
+      if (lift.getDirection() == DIRECTION_DOWN &&
+          lift.getNextStopFloor() >= floor) {
+        return lift;
+      }
+    }
+    // Case II: see if there is any inactive lift to use
+    Lift candidate = pickNearestSuspendedLift(floor, lifts);
+    if (candidate != null) {
+      return candidate;
+    }
+    // Case III: see if there is a lift that is going up but
+    // will change its direction soon, it maybe still pretty good
+    Lift candidate2 = pickHighestOrLowestLift(DIRECTION_UP, lifts);
+    if (candidate2 != null) {
+      return candidate2;
+    }
+    // Case IV: lift's going down too but we just missed
+    for (Lift lift : lifts) {
+      if (lift.getDirection() == DIRECTION_DOWN &&
+          lift.getNextStopFloor() < floor) {
+        return lift;
+      }
+    }
+    // Pick the first one if no matches
+    return lifts.iterator().next();
+  }
+
+  private Lift pickBestOneForUpRequest(int floor, Set<Lift> lifts) {
+    // Case I: lift's going up too but still below us
+    for (Lift lift : lifts) {
+      if (lift.getDirection() == DIRECTION_UP &&
+          lift.getNextStopFloor() <= floor) {
+        return lift;
+      }
+    }
+    // Case II: see if there is any inactive lift to use
+    Lift candidate = pickNearestSuspendedLift(floor, lifts);
+    if (candidate != null) {
+      return candidate;
+    }
+    // Case III: see if there is a lift that is going down but
+    // will change its direction soon, it maybe still pretty good
+    Lift candidate2 = pickHighestOrLowestLift(DIRECTION_DOWN, lifts);
+    if (candidate2 != null) {
+      return candidate2;
+    }
+    // Case IV: lift's going up too but we just missed
+    for (Lift lift : lifts) {
+      if (lift.getDirection() == DIRECTION_UP &&
+          lift.getNextStopFloor() > floor) {
+        return lift;
+      }
+    }
+    // Pick the first one if no matches
+    return lifts.iterator().next();
+  }
+
+  private Lift pickNearestSuspendedLift(int floor, Set<Lift> lifts) {
+    Lift candidate = null;
+    int candidateDistance = Integer.MAX_VALUE;
+    for (Lift lift : lifts) {
+      if (lift.getDirection() == NO_DIRECTION) {
+        int distance = Math.abs(lift.getCurrentFloor() - floor);
+        if (distance < candidateDistance) {
+          candidate = lift;
+          candidateDistance = distance;
+        }
+      }
+    }
+    return candidate;
+  }
+
+  private Lift pickHighestOrLowestLift(int liftDirection, Set<Lift> lifts) {
+    Lift candidate = null;
+    int candidateFloor = 0;
+    for (Lift lift : lifts) {
+      if (lift.getDirection() == liftDirection) {
+        // The floor of a moving lift is worked out, so read it once
+        int currentFloor = lift.getCurrentFloor();
+        if (candidate == null ||
+            (liftDirection == DIRECTION_UP && currentFloor > candidateFloor) ||
+            (liftDirection == DIRECTION_DOWN && currentFloor < candidateFloor)) {
+
+          candidate = lift;
+          candidateFloor = currentFloor;
+        }
+      }
+    }
+    return candidate;
+  }
+}
@@ -0,0 +1,32 @@
+package sim;
+
+import java.util.Set;
+
+/**
+ * Pick the synchronized lift which is expected to arrive first.
+ *
+ * Every lift is scored by its estimated time of arrival, which counts
+ * the travelling time as well as the door cycles of the stops it has
+ * to make on the way.
+ */
+public class EstimatedTimeScheduler implements DispatchStrategy {
+
+  @Override
+  public Lift pickBestSyncLift(int requestFloor,
+                               int requestDirection,
+                               Set<Lift> allSyncLifts) {
+    Lift bestLift = null;
+    long bestTime = Long.MAX_VALUE;
+
+    for (Lift lift : allSyncLifts) {
+      long time = lift.estimateArrivalTime(requestFloor, requestDirection);
+      // Lower index wins a tie, so the choice does not depend on the set order
+      if (time < bestTime ||
+          (time == bestTime && lift.getIndex() < bestLift.getIndex())) {
+        bestLift = lift;
+        bestTime = time;
+      }
+    }
+    return bestLift;
+  }
+}
@@ -0,0 +1,97 @@
+package sim;
+
+import java.util.PriorityQueue;
+
+/**
+ * A discrete-event clock.
+ *
+ * Time only moves forward when the next scheduled event fires,
+ * so the simulation runs as fast as the machine allows instead
+ * of sleeping between animation steps.
+ */
+public class EventClock {
+
+  private final PriorityQueue<Event> events;
+  private long now;      // current simulated time, in milliseconds
+  private long sequence; // keeps events due at the same time in order
+
+  public EventClock() {
+    this.events   = new PriorityQueue<>();
+    this.now      = 0L;
+    this.sequence = 0L;
+  }
+
+  public long now() {
+    return this.now;
+  }
+
+  /** Run the action once after the given delay */
+  public Event schedule(long delay, Runnable action) {
+    Event event = new Event(now + Math.max(0L, delay), sequence++, action, 0L);
+    events.add(event);
+    return event;
+  }
+
+  /** Run the action right away and then once every interval until cancelled */
+  public Event schedulePeriodic(long interval, Runnable action) {
+    Event event = new Event(now, sequence++, action, interval);
+    events.add(event);
+    return event;
+  }
+
+  /** Fire every event due no later than the given time, then move there */
+  public void advanceTo(long time) {
+    while (!events.isEmpty() && events.peek().time <= time) {
+      Event event = events.poll();
+      if (event.isCancelled)
+        continue;
+
+      now = event.time;
+      event.action.run();
+
+      if (event.interval > 0 && !event.isCancelled) {
+        event.time = now + event.interval;
+        event.order = sequence++;
+        events.add(event);
+      }
+    }
+    now = Math.max(now, time);
+  }
+
+  /** Drop every pending event, the time stays where it is */
+  public void clear() {
+    events.clear();
+  }
+
+  /** Indicate if nothing is left to happen */
+  public boolean isIdle() {
+    return events.isEmpty();
+  }
+
+  /** A scheduled action which can be cancelled before it fires */
+  public static class Event implements Comparable<Event> {
+    private final Runnable action;
+    private final long interval;
+    private long time;
+    private long order;
+    private boolean isCancelled;
+
+    private Event(long time, long order, Runnable action, long interval) {
+      this.time     = time;
+      this.order    = order;
+      this.action   = action;
+      this.interval = interval;
+    }
+
+    public void cancel() {
+      this.isCancelled = true;
+    }
+
+    @Override
+    public int compareTo(Event other) {
+      if (this.time != other.time)
+        return Long.compare(this.time, other.time);
+      return Long.compare(this.order, other.order);
+    }
+  }
+}
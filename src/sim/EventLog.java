@@ -0,0 +1,160 @@
+package sim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Write every event into a compact binary file.
+ *
+ * A record is its type in one byte, the time since the previous record
+ * and the fields, all as variable-length integers, so most records take
+ * four to six bytes. Records are gathered in a direct buffer and reach
+ * the file channel when the buffer is full, or at the first control
+ * interval a second after the last write, so a run which is killed
+ * loses at most about a second of its log.
+ */
+public class EventLog implements EventRecorder, Closeable {
+  static final int MAGIC   = 0x454C4F47; // "ELOG"
+  static final int VERSION = 1;
+
+  // Record types
+  static final byte LIFT_START       = 1;
+  static final byte ARRIVAL          = 2;
+  static final byte HALL_CALL        = 3;
+  static final byte DESTINATION_CALL = 4;
+  static final byte ASSIGNMENT       = 5;
+  static final byte STOP             = 6;
+  static final byte DOORS_OPENING    = 7;
+  static final byte DOORS_CLOSED     = 8;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int MAX_RECORD  = 1 + 5 * 10; // type and five varints at most
+  private static final long FLUSH_PERIOD = 1_000_000_000L; // nanoseconds between writes, at most
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private long lastTime;
+  private long lastFlush; // System.nanoTime of the last write
+
+  /** Create or overwrite the file, the building is written first to check replays */
+  public EventLog(Path file, BuildingConfig config) throws IOException {
+    this.channel = FileChannel.open(file,
+                                    StandardOpenOption.CREATE,
+                                    StandardOpenOption.WRITE,
+                                    StandardOpenOption.TRUNCATE_EXISTING);
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.lastTime = 0L;
+    this.lastFlush = System.nanoTime();
+
+    buffer.putInt(MAGIC);
+    buffer.put((byte) VERSION);
+    putUnsigned(config.getFloors());
+    putUnsigned(config.getUndergrounds());
+    putUnsigned(config.getLiftCount());
+  }
+
+  @Override
+  public void liftStart(long time, int lift, int floor) {
+    begin(LIFT_START, time);
+    putUnsigned(lift);
+    putSigned(floor);
+  }
+
+  @Override
+  public void arrival(long time, int startFloor, int endFloor, int appearSide) {
+    begin(ARRIVAL, time);
+    putSigned(startFloor);
+    putSigned(endFloor);
+    putUnsigned(appearSide);
+  }
+
+  @Override
+  public void hallCall(long time, int lift, int floor, int direction) {
+    liftEvent(HALL_CALL, time, lift, floor);
+    putUnsigned(direction);
+  }
+
+  @Override
+  public void destinationCall(long time, int floor, int destination) {
+    begin(DESTINATION_CALL, time);
+    putSigned(floor);
+    putSigned(destination);
+  }
+
+  @Override
+  public void assignment(long time, int lift, int floor, int direction) {
+    liftEvent(ASSIGNMENT, time, lift, floor);
+    putUnsigned(direction);
+  }
+
+  @Override
+  public void stop(long time, int lift, int floor) {
+    liftEvent(STOP, time, lift, floor);
+  }
+
+  @Override
+  public void doorsOpening(long time, int lift, int floor) {
+    liftEvent(DOORS_OPENING, time, lift, floor);
+  }
+
+  @Override
+  public void doorsClosed(long time, int lift, int floor) {
+    liftEvent(DOORS_CLOSED, time, lift, floor);
+  }
+
+  @Override
+  public void controlInterval(long time) {
+    if (buffer.position() > 0 && System.nanoTime() - lastFlush >= FLUSH_PERIOD)
+      flush();
+  }
+
+  /** Write out what is left in the buffer and close the file */
+  @Override
+  public void close() throws IOException {
+    flush();
+    channel.close();
+  }
+
+  private void liftEvent(byte type, long time, int lift, int floor) {
+    begin(type, time);
+    putUnsigned(lift);
+    putSigned(floor);
+  }
+
+  private void begin(byte type, long time) {
+    if (buffer.remaining() < MAX_RECORD)
+      flush();
+    buffer.put(type);
+    putUnsigned(time - lastTime);
+    lastTime = time;
+  }
+
+  private void flush() {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining())
+        channel.write(buffer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.clear();
+    lastFlush = System.nanoTime();
+  }
+
+  private void putSigned(long value) {
+    putUnsigned((value << 1) ^ (value >> 63)); // zigzag, small negatives stay short
+  }
+
+  private void putUnsigned(long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+}
@@ -0,0 +1,220 @@
+package sim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read back a file written by EventLog, one record at a time.
+ *
+ * next() moves to the following record, whose fields are then
+ * available from the getters until the next call. Fields which
+ * a record does not have read as zero.
+ *
+ * A run killed while recording leaves a log cut in the middle of a
+ * record. Reading such a log stops at the last whole record, and
+ * isTruncated() tells it was cut.
+ */
+public class EventLogReader implements Closeable {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final int floors;
+  private final int undergrounds;
+  private final int liftCount;
+  private boolean isEndOfFile;
+  private boolean isTruncated; // the file ends in the middle of a record
+
+  private byte type;
+  private long time;
+  private int lift;
+  private int floor;
+  private int endFloor;  // the destination of an arrival or a destination call
+  private int direction;
+  private int appearSide;
+
+  public EventLogReader(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.buffer.flip();
+    this.isEndOfFile = false;
+    this.isTruncated = false;
+
+    try {
+      fill();
+      if (buffer.remaining() < 4 || buffer.getInt() != EventLog.MAGIC)
+        throw new IOException("Not an event log: " + file);
+      if (buffer.get() != EventLog.VERSION)
+        throw new IOException("Unknown event log version: " + file);
+      this.floors = (int) getUnsigned();
+      this.undergrounds = (int) getUnsigned();
+      this.liftCount = (int) getUnsigned();
+    }
+    catch (BufferUnderflowException e) {
+      channel.close();
+      throw new IOException("Truncated event log: " + file);
+    }
+    catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /** Indicate if the log was recorded in a building of the same layout */
+  public boolean matches(BuildingConfig config) {
+    return floors == config.getFloors() &&
+           undergrounds == config.getUndergrounds() &&
+           liftCount == config.getLiftCount();
+  }
+
+  /** Move to the next record, return false at the end of the log or where it was cut */
+  public boolean next() {
+    fill();
+    if (!buffer.hasRemaining() || isTruncated)
+      return false;
+
+    try {
+      read();
+      return true;
+    }
+    catch (BufferUnderflowException e) {
+      // Only the end of the file leaves less than a whole record in the buffer
+      isTruncated = true;
+      buffer.position(buffer.limit());
+      return false;
+    }
+  }
+
+  /** Indicate if the log ends in the middle of a record */
+  public boolean isTruncated() {
+    return this.isTruncated;
+  }
+
+  private void read() {
+    byte type = buffer.get();
+    long delta = getUnsigned();
+    int lift = 0;
+    int floor = 0;
+    int endFloor = 0;
+    int direction = 0;
+    int appearSide = 0;
+
+    switch (type) {
+      case EventLog.ARRIVAL:
+        floor = (int) getSigned();
+        endFloor = (int) getSigned();
+        appearSide = (int) getUnsigned();
+        break;
+      case EventLog.DESTINATION_CALL:
+        floor = (int) getSigned();
+        endFloor = (int) getSigned();
+        break;
+      case EventLog.HALL_CALL:
+      case EventLog.ASSIGNMENT:
+        lift = (int) getUnsigned();
+        floor = (int) getSigned();
+        direction = (int) getUnsigned();
+        break;
+      case EventLog.LIFT_START:
+      case EventLog.STOP:
+      case EventLog.DOORS_OPENING:
+      case EventLog.DOORS_CLOSED:
+        lift = (int) getUnsigned();
+        floor = (int) getSigned();
+        break;
+      default:
+        throw new IllegalStateException("Unknown record type: " + type);
+    }
+
+    // Only a whole record changes the fields
+    this.type = type;
+    this.time += delta;
+    this.lift = lift;
+    this.floor = floor;
+    this.endFloor = endFloor;
+    this.direction = direction;
+    this.appearSide = appearSide;
+  }
+
+  public byte getType() {
+    return this.type;
+  }
+
+  public long getTime() {
+    return this.time;
+  }
+
+  public int getLift() {
+    return this.lift;
+  }
+
+  public int getFloor() {
+    return this.floor;
+  }
+
+  public int getEndFloor() {
+    return this.endFloor;
+  }
+
+  public int getDirection() {
+    return this.direction;
+  }
+
+  public int getAppearSide() {
+    return this.appearSide;
+  }
+
+  public boolean isArrival() {
+    return type == EventLog.ARRIVAL;
+  }
+
+  public boolean isLiftStart() {
+    return type == EventLog.LIFT_START;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /** Keep at least one whole record in the buffer, unless the file ends first */
+  private void fill() {
+    if (isEndOfFile || buffer.remaining() >= 64)
+      return;
+    buffer.compact();
+    try {
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) < 0) {
+          isEndOfFile = true;
+          break;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.flip();
+  }
+
+  private long getSigned() {
+    long value = getUnsigned();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private long getUnsigned() {
+    long value = 0L;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    return value;
+  }
+}
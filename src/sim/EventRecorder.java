@@ -0,0 +1,47 @@
+package sim;
+
+/**
+ * Receive what happens in the simulation, as it happens.
+ *
+ * Every method does nothing by default, so a recorder only
+ * overrides the events it cares about.
+ */
+public interface EventRecorder {
+
+  /** Record nothing */
+  EventRecorder NONE = new EventRecorder() {};
+
+  /** A lift stands at this floor when the simulation starts */
+  default void liftStart(long time, int lift, int floor) {
+  }
+
+  /** A person enters the hall on one side */
+  default void arrival(long time, int startFloor, int endFloor, int appearSide) {
+  }
+
+  /** The up or down button of a lift is pressed */
+  default void hallCall(long time, int lift, int floor, int direction) {
+  }
+
+  /** A destination is entered at the terminal of the sync lifts */
+  default void destinationCall(long time, int floor, int destination) {
+  }
+
+  /** A lift is given a call to serve */
+  default void assignment(long time, int lift, int floor, int direction) {
+  }
+
+  /** A lift reaches the floor it was heading to */
+  default void stop(long time, int lift, int floor) {
+  }
+
+  default void doorsOpening(long time, int lift, int floor) {
+  }
+
+  default void doorsClosed(long time, int lift, int floor) {
+  }
+
+  /** Another control interval has passed, a good time to write out what is held back */
+  default void controlInterval(long time) {
+  }
+}
@@ -0,0 +1,184 @@
+package sim;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generate a pair of floor for a new person to use.
+ *
+ * People behave differently in various building settings.
+ * Trips come in three kinds, incoming from the ground floor,
+ * outgoing to the ground floor and interfloor, each with its own
+ * origin-destination matrix. A building may bring its own matrices,
+ * see BuildingConfig.withTrips. A trip is drawn in constant time from
+ * the matrices with the alias method.
+ *
+ * The matrices are shared, but the random numbers are not, so
+ * every thread needs its own instance, see split().
+ */
+public class FloorPair {
+
+  // Share of trips to or from the carpark among those through the ground floor
+  private static final double CARPARK_SHARE = 0.10;
+
+  private final BuildingConfig config;
+  private final int floors;
+  private final Matrix incoming;
+  private final Matrix outgoing;
+  private final Matrix interfloor; // null if there are not two floors to go between
+  private final SplittableRandom random;
+
+  /** Use the matrices of the building, the usual ones unless it has its own */
+  public FloorPair(BuildingConfig config, SplittableRandom random) {
+    this(config, config.getTrips() != null ? config.getTrips() : getUsualTrips(config), random);
+  }
+
+  /** Use the given matrices */
+  public FloorPair(BuildingConfig config, TripMatrix trips, SplittableRandom random) {
+    this(config,
+         new Matrix(trips.getIncoming()),
+         new Matrix(trips.getOutgoing()),
+         TripMatrix.isEmpty(trips.getInterfloor()) ? null : new Matrix(trips.getInterfloor()),
+         random);
+  }
+
+  private FloorPair(BuildingConfig config,
+                    Matrix incoming,
+                    Matrix outgoing,
+                    Matrix interfloor,
+                    SplittableRandom random) {
+    this.config = config;
+    this.floors = config.getFloors();
+    this.incoming = incoming;
+    this.outgoing = outgoing;
+    this.interfloor = interfloor;
+    this.random = random;
+  }
+
+  /** Return a generator with the same matrices and its own random numbers */
+  public FloorPair split() {
+    return new FloorPair(config, incoming, outgoing, interfloor, random.split());
+  }
+
+  /** Draw a trip with the usual mix: half incoming, a few interfloor, the rest outgoing */
+  public int[] getPair() {
+    return getPair(0.50, 0.05);
+  }
+
+  /** Draw a trip with the given shares of incoming and interfloor trips, the rest outgoing */
+  public int[] getPair(double incomingShare, double interfloorShare) {
+    int trip = nextTrip(incomingShare, interfloorShare);
+    return new int[] {getStartFloor(trip), getEndFloor(trip)};
+  }
+
+  /** Draw a trip without allocating, read it with getStartFloor and getEndFloor */
+  public int nextTrip(double incomingShare, double interfloorShare) {
+    double draw = random.nextDouble();
+    if (draw < incomingShare)
+      return incoming.sample(random);
+    if (draw < incomingShare + interfloorShare && interfloor != null)
+      return interfloor.sample(random);
+    return outgoing.sample(random);
+  }
+
+  public int getStartFloor(int trip) {
+    return config.toFloor(trip / floors);
+  }
+
+  public int getEndFloor(int trip) {
+    return config.toFloor(trip % floors);
+  }
+
+  /** Return any floor of the building, all equally likely */
+  public int getRandomFloor() {
+    return config.toFloor(random.nextInt(floors));
+  }
+
+  /** Return the trips of the usual building, incoming and outgoing mirror each other */
+  public static TripMatrix getUsualTrips(BuildingConfig config) {
+    double[][] incoming = incomingWeights(config);
+    return new TripMatrix(incoming, transpose(incoming), interfloorWeights(config));
+  }
+
+  /**
+   * From the ground floor, or a carpark now and then, to any floor above.
+   * A building with nothing above the ground floor is entered from it
+   * down to the floors underground instead.
+   */
+  private static double[][] incomingWeights(BuildingConfig config) {
+    int floors = config.getFloors();
+    int undergrounds = config.getUndergrounds();
+    int ground = config.toLevel(1);
+    double[][] weights = new double[floors][floors];
+
+    if (ground == floors - 1) {
+      for (int end = 0; end < ground; end++)
+        weights[ground][end] = 1.0;
+      return weights;
+    }
+    for (int end = ground + 1; end < floors; end++) {
+      weights[ground][end] = undergrounds > 0 ? 1.0 - CARPARK_SHARE : 1.0;
+      for (int start = 0; start < undergrounds; start++)
+        weights[start][end] = CARPARK_SHARE / undergrounds;
+    }
+    return weights;
+  }
+
+  /** Between any two different floors above the ground floor */
+  private static double[][] interfloorWeights(BuildingConfig config) {
+    int floors = config.getFloors();
+    int ground = config.toLevel(1);
+    double[][] weights = new double[floors][floors];
+
+    for (int start = ground + 1; start < floors; start++) {
+      for (int end = ground + 1; end < floors; end++) {
+        if (start != end)
+          weights[start][end] = 1.0;
+      }
+    }
+    return weights;
+  }
+
+  private static double[][] transpose(double[][] weights) {
+    double[][] transposed = new double[weights.length][weights.length];
+    for (int i = 0; i < weights.length; i++) {
+      for (int j = 0; j < weights.length; j++)
+        transposed[j][i] = weights[i][j];
+    }
+    return transposed;
+  }
+
+  /** The trips of one kind, a trip is its start level times floors plus its end level */
+  private static class Matrix {
+    private final AliasTable table;
+    private final int[] trips; // the trip of each entry in the table
+
+    Matrix(double[][] weights) {
+      int floors = weights.length;
+      int count = 0;
+      for (double[] row : weights) {
+        for (double weight : row) {
+          if (weight > 0)
+            count++;
+        }
+      }
+
+      // Only keep the trips which can happen
+      double[] kept = new double[count];
+      trips = new int[count];
+      count = 0;
+      for (int start = 0; start < floors; start++) {
+        for (int end = 0; end < floors; end++) {
+          if (weights[start][end] > 0) {
+            kept[count] = weights[start][end];
+            trips[count++] = start * floors + end;
+          }
+        }
+      }
+      table = new AliasTable(kept);
+    }
+
+    int sample(SplittableRandom random) {
+      return trips[table.sample(random)];
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package sim;
+
+/**
+ * A set of floors of one building, one bit per floor.
+ *
+ * All queries are done with bit operations on long words,
+ * so nothing is allocated and no floor number is boxed.
+ */
+public class FloorSet {
+  // Returned when no floor matches, there is no floor zero
+  public static final int NONE = 0;
+
+  private final BuildingConfig config;
+  private final int floors;
+  private final long[] words; // bit i stands for level i, counted from the lowest floor
+
+  public FloorSet(BuildingConfig config) {
+    this.config = config;
+    this.floors = config.getFloors();
+    this.words  = new long[(floors + 63) >>> 6];
+  }
+
+  public void add(int floor) {
+    int level = config.toLevel(floor);
+    words[level >>> 6] |= 1L << level;
+  }
+
+  public void remove(int floor) {
+    int level = config.toLevel(floor);
+    words[level >>> 6] &= ~(1L << level);
+  }
+
+  public boolean contains(int floor) {
+    int level = config.toLevel(floor);
+    return (words[level >>> 6] & (1L << level)) != 0;
+  }
+
+  public boolean isEmpty() {
+    for (long word : words) {
+      if (word != 0)
+        return false;
+    }
+    return true;
+  }
+
+  public int size() {
+    int size = 0;
+    for (long word : words)
+      size += Long.bitCount(word);
+    return size;
+  }
+
+  public void clear() {
+    for (int i = 0; i < words.length; i++)
+      words[i] = 0L;
+  }
+
+  /** Return the lowest floor, or NONE */
+  public int first() {
+    return toFloor(nextLevel(0));
+  }
+
+  /** Return the highest floor, or NONE */
+  public int last() {
+    return toFloor(previousLevel(floors - 1));
+  }
+
+  /** Remove and return the lowest floor, or NONE */
+  public int pollFirst() {
+    int floor = first();
+    if (floor != NONE)
+      remove(floor);
+    return floor;
+  }
+
+  /** Remove and return the highest floor, or NONE */
+  public int pollLast() {
+    int floor = last();
+    if (floor != NONE)
+      remove(floor);
+    return floor;
+  }
+
+  /** Return the lowest floor strictly above the given one, or NONE */
+  public int nextAbove(int floor) {
+    return toFloor(nextLevel(config.toLevel(floor) + 1));
+  }
+
+  /** Return the highest floor strictly below the given one, or NONE */
+  public int nextBelow(int floor) {
+    return toFloor(previousLevel(config.toLevel(floor) - 1));
+  }
+
+  /** Return the floor closest to the given one, the lower one on a tie, or NONE */
+  public int nearestTo(int floor) {
+    int level = config.toLevel(floor);
+    int above = nextLevel(level);
+    int below = previousLevel(level);
+
+    if (above < 0)
+      return toFloor(below);
+    if (below < 0 || above - level < level - below)
+      return toFloor(above);
+    return toFloor(below);
+  }
+
+  /** Add the floors of the other set which are strictly above the given one */
+  public void addAllAbove(FloorSet other, int floor) {
+    int from = config.toLevel(floor) + 1;
+    for (int i = 0; i < words.length; i++)
+      words[i] |= other.words[i] & maskFrom(i, from);
+  }
+
+  /** Add the floors of the other set which are strictly below the given one */
+  public void addAllBelow(FloorSet other, int floor) {
+    int to = config.toLevel(floor);
+    for (int i = 0; i < words.length; i++)
+      words[i] |= other.words[i] & ~maskFrom(i, to);
+  }
+
+  /** Count the floors from low to high, both included, found in any of the three sets */
+  public static int countUnion(FloorSet a, FloorSet b, FloorSet c, int lowFloor, int highFloor) {
+    BuildingConfig config = a.config;
+    int from = Math.max(config.toLevel(lowFloor), 0);
+    int to   = Math.min(config.toLevel(highFloor), a.floors - 1) + 1;
+    if (from >= to)
+      return 0;
+
+    int count = 0;
+    for (int i = from >>> 6; i <= (to - 1) >>> 6; i++) {
+      long mask = a.maskFrom(i, from) & ~a.maskFrom(i, to);
+      count += Long.bitCount((a.words[i] | b.words[i] | c.words[i]) & mask);
+    }
+    return count;
+  }
+
+  /** Return the bits of the i-th word standing for the given level and above */
+  private long maskFrom(int i, int level) {
+    if (level <= (i << 6))
+      return -1L;
+    if (level >= ((i + 1) << 6))
+      return 0L;
+    return -1L << level;
+  }
+
+  /** Return the lowest level at or above the given one, or -1 */
+  private int nextLevel(int level) {
+    if (level >= floors)
+      return -1;
+    level = Math.max(level, 0);
+
+    int i = level >>> 6;
+    long word = words[i] & (-1L << level);
+    while (word == 0) {
+      if (++i == words.length)
+        return -1;
+      word = words[i];
+    }
+    return (i << 6) + Long.numberOfTrailingZeros(word);
+  }
+
+  /** Return the highest level at or below the given one, or -1 */
+  private int previousLevel(int level) {
+    if (level < 0)
+      return -1;
+    level = Math.min(level, floors - 1);
+
+    int i = level >>> 6;
+    long word = words[i] & (-1L >>> (63 - (level & 63)));
+    while (word == 0) {
+      if (--i < 0)
+        return -1;
+      word = words[i];
+    }
+    return (i << 6) + 63 - Long.numberOfLeadingZeros(word);
+  }
+
+  private int toFloor(int level) {
+    return level < 0 ? NONE : config.toFloor(level);
+  }
+}
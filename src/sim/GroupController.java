@@ -0,0 +1,352 @@
+package sim;
+
+import static constants.CommonConstant.DIRECTION_UP;
+import static constants.CommonConstant.DIRECTION_DOWN;
+import static constants.SimulationConstant.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Take the calls made in the halls and hand them to the lifts.
+ *
+ * An async lift serves its own buttons. The sync lifts of each bank work
+ * as a group, a call made on any of them is given to the one of the same
+ * bank the strategy picks. A building which is not zoned has one bank.
+ *
+ * In batch mode, calls on the sync lifts are only collected as they come,
+ * and once every control interval all of them are assigned together
+ * with the least total estimated time of arrival.
+ *
+ * Assigned calls are checked again every interval as well, a call moves
+ * to another sync lift once that one would arrive sooner by more than
+ * the threshold. The sync lights are shared, so they stay on meanwhile.
+ */
+public class GroupController {
+  private final BuildingConfig config;
+  private final EventClock clock;
+  private final DispatchStrategy scheduler;
+  private final ButtonPanel buttons;
+  private final Set<Lift> syncLifts;
+  private final List<Lift> syncLiftList; // same lifts, for indexing
+  private final List<Bank> banks;        // sync lifts of each zone which has any
+  private final Bank[] liftBanks;        // bank of each lift by index, null for async lifts
+  private final List<List<Call>> destinationCalls; // calls each lift was given at the terminals, by index
+  private boolean batchAssignment;
+  private EventRecorder recorder;
+  private long reassignThreshold;        // 0 to keep every call where it was assigned
+  private int reassignLift;              // sync lift whose calls are checked next
+  private int reassignDirection;         // direction of its calls checked next
+  private int reassignFloor;             // last floor checked, NONE to start from the lowest
+
+  public GroupController(BuildingConfig config,
+                         EventClock clock,
+                         DispatchStrategy scheduler,
+                         ButtonPanel buttons,
+                         List<Lift> lifts) {
+    this.config = config;
+    this.clock = clock;
+    this.scheduler = scheduler;
+    this.buttons = buttons;
+    this.syncLifts = new LinkedHashSet<>();
+    this.destinationCalls = new ArrayList<>();
+    this.banks = new ArrayList<>();
+    this.liftBanks = new Bank[lifts.size()];
+    this.batchAssignment = false;
+    this.recorder = EventRecorder.NONE;
+    this.reassignThreshold = 0L;
+    this.reassignLift = 0;
+    this.reassignDirection = DIRECTION_UP;
+    this.reassignFloor = FloorSet.NONE;
+
+    for (Lift lift : lifts) {
+      if (lift.isSynchronized())
+        this.syncLifts.add(lift);
+      this.destinationCalls.add(new ArrayList<>());
+    }
+    this.syncLiftList = new ArrayList<>(syncLifts);
+
+    for (Zone zone : config.getZones()) {
+      Bank bank = new Bank();
+      for (Lift lift : syncLiftList) {
+        if (zone.hasLift(lift.getIndex())) {
+          bank.lifts.add(lift);
+          liftBanks[lift.getIndex()] = bank;
+        }
+      }
+      if (bank.lifts.isEmpty())
+        continue;
+      bank.liftList.addAll(bank.lifts);
+      banks.add(bank);
+
+      // People calling the group board whichever of its lifts opens first,
+      // unless each of them has been given a lift for the destination
+      if (!config.isDestinationDispatch()) {
+        for (Lift lift : bank.liftList)
+          lift.shareWaiters(bank.liftList.get(0));
+      }
+    }
+  }
+
+  /** Start the control cycle */
+  public void start() {
+    clock.schedulePeriodic(CONTROLLER_INTERVAL, () -> control());
+  }
+
+  /** Collect the sync calls and assign them once per interval, or one by one */
+  public void setBatchAssignment(boolean enabled) {
+    this.batchAssignment = enabled;
+  }
+
+  void setRecorder(EventRecorder recorder) {
+    this.recorder = recorder;
+  }
+
+  /** Move a call once another lift would arrive sooner by more than this, 0 to disable */
+  public void setReassignThreshold(long threshold) {
+    this.reassignThreshold = threshold;
+  }
+
+  private void control() {
+    if (batchAssignment)
+      banks.forEach(bank -> assignPendingCalls(bank));
+    // A destination call is bound to the lift shown to its people
+    if (reassignThreshold > 0 && !config.isDestinationDispatch())
+      reassignCalls();
+  }
+
+  /**
+   * Hand calls over to lifts which would arrive much sooner. Only so many
+   * estimates are made per interval, the next interval goes on from the
+   * call where this one stopped, so a tall building with many lifts
+   * costs no more per interval than a small one.
+   */
+  private void reassignCalls() {
+    int lifts = syncLiftList.size();
+    int estimates = 0;
+    int finished = 0; // lists of calls gone through
+    while (finished < 2 * lifts && estimates < REASSIGN_ESTIMATES) {
+      Lift lift = syncLiftList.get(reassignLift);
+      FloorSet requests = lift.getRequests(reassignDirection);
+      int floor = reassignFloor == FloorSet.NONE ?
+                  requests.first() : requests.nextAbove(reassignFloor);
+
+      if (floor == FloorSet.NONE) {
+        // Down calls of the same lift next, then the up calls of the next lift
+        if (reassignDirection == DIRECTION_DOWN)
+          reassignLift = (reassignLift + 1) % lifts;
+        reassignDirection = reassignDirection == DIRECTION_UP ? DIRECTION_DOWN : DIRECTION_UP;
+        reassignFloor = FloorSet.NONE;
+        finished++;
+        continue;
+      }
+      reassignFloor = floor;
+      estimates += reassignCall(lift, floor, reassignDirection);
+    }
+  }
+
+  /** Move the call to a lift of the same bank if it is worth it, return the estimates made */
+  private int reassignCall(Lift lift, int floor, int direction) {
+    List<Lift> others = liftBanks[lift.getIndex()].liftList;
+    long ownTime = lift.estimateArrivalTime(floor, direction);
+    Lift bestLift = null;
+    long bestTime = ownTime - reassignThreshold;
+
+    for (Lift other : others) {
+      if (other == lift)
+        continue;
+      long time = other.estimateArrivalTime(floor, direction);
+      if (time < bestTime) {
+        bestLift = other;
+        bestTime = time;
+      }
+    }
+    if (bestLift != null && lift.dropRequest(floor, direction))
+      bestLift.addRequest(floor, direction);
+    return others.size();
+  }
+
+  /** Press the up or down button of a lift */
+  public void pressButton(Lift lift, int requestFloor, int requestDirection) {
+    recorder.hallCall(clock.now(), lift.getIndex(), requestFloor, requestDirection);
+    if (!lift.isSynchronized()) {
+      buttons.turnOn(lift.getIndex(), requestFloor, requestDirection);
+      lift.addRequest(requestFloor, requestDirection);
+      return;
+    }
+    // This request requires the synchronized lifts of the bank to cooperate
+    // Turn their button lights on but only pick the 'best' one to serve
+    Bank bank = liftBanks[lift.getIndex()];
+    for (Lift syncLift : bank.liftList)
+      buttons.turnOn(syncLift.getIndex(), requestFloor, requestDirection);
+    if (batchAssignment) {
+      (requestDirection == DIRECTION_UP ? bank.pendingUp : bank.pendingDown).add(requestFloor);
+      return;
+    }
+    Lift bestLift = scheduler.
+        pickBestSyncLift(requestFloor, requestDirection, bank.lifts);
+    if (bestLift != null) {
+      bestLift.addRequest(requestFloor, requestDirection);
+    }
+  }
+
+  /**
+   * Enter a destination at the hall terminal of the sync lifts, return
+   * the lift assigned to it, null if no sync lift serves both floors.
+   * The lift is picked from the first bank serving both of them.
+   */
+  public Lift enterDestination(int requestFloor, int destination) {
+    recorder.destinationCall(clock.now(), requestFloor, destination);
+    int direction = destination > requestFloor ? DIRECTION_UP : DIRECTION_DOWN;
+
+    Lift lift = null;
+    for (Bank bank : banks) {
+      Lift first = bank.liftList.get(0);
+      if (config.serves(first.getIndex(), requestFloor) &&
+          config.serves(first.getIndex(), destination)) {
+        lift = pickDestinationLift(bank, requestFloor, destination, direction);
+        break;
+      }
+    }
+    if (lift == null)
+      return null;
+
+    destinationCalls.get(lift.getIndex()).add(new Call(requestFloor, destination, direction));
+    // Only the assigned lift lights up, the others will not stop for this call
+    buttons.turnOn(lift.getIndex(), requestFloor, direction);
+    lift.addRequest(requestFloor, direction);
+    return lift;
+  }
+
+  /**
+   * Return the lift of the bank which costs the least for a destination
+   * call: its time of arrival at the floor, plus a door cycle for each
+   * stop the call adds, at the start and at the destination, counted
+   * once for the caller and once for every two people the stop holds
+   * up, inside the lift or waiting for it. A lift which stops at both
+   * floors anyway takes the call for nothing but the wait, so people
+   * going to the same floor share a lift wherever they start from.
+   */
+  private Lift pickDestinationLift(Bank bank, int requestFloor, int destination, int direction) {
+    Lift bestLift = null;
+    long bestCost = Long.MAX_VALUE;
+
+    for (Lift lift : bank.liftList) {
+      List<Call> calls = getDestinationCalls(lift);
+      int stops = 0;
+      if (!lift.willStopAt(requestFloor))
+        stops++;
+      if (!lift.willStopAt(destination) && !isGoingTo(calls, destination))
+        stops++;
+
+      // Half of the people held up are on average going beyond the stop
+      long heldUp = lift.getPassengers().size() + calls.size();
+      long cost = lift.estimateArrivalTime(requestFloor, direction) +
+                  stops * (2 + heldUp) * config.getStopTime() / 2;
+      if (cost < bestCost) {
+        bestLift = lift;
+        bestCost = cost;
+      }
+    }
+    return bestLift;
+  }
+
+  /** Return the destination calls the lift has not picked up yet, forgetting the others */
+  private List<Call> getDestinationCalls(Lift lift) {
+    List<Call> calls = destinationCalls.get(lift.getIndex());
+    // Once the lift has opened at the start of a call, its people are inside
+    calls.removeIf(call -> !lift.hasRequest(call.floor, call.direction));
+    return calls;
+  }
+
+  private static boolean isGoingTo(List<Call> calls, int destination) {
+    for (Call call : calls) {
+      if (call.destination == destination)
+        return true;
+    }
+    return false;
+  }
+
+  /** Assign all calls collected by the bank at once, with the least total cost */
+  private void assignPendingCalls(Bank bank) {
+    int count = bank.pendingUp.size() + bank.pendingDown.size();
+    if (count == 0)
+      return;
+
+    int[] floors = new int[count];
+    int[] directions = new int[count];
+    int light = bank.liftList.get(0).getIndex();
+    count = 0;
+    count = collectPendingCalls(bank.pendingUp, DIRECTION_UP, light, floors, directions, count);
+    count = collectPendingCalls(bank.pendingDown, DIRECTION_DOWN, light, floors, directions, count);
+    if (count == 0)
+      return;
+
+    // Each lift is offered once per call it might take, every copy
+    // costs one more door cycle than the one before
+    int lifts = bank.liftList.size();
+    int copies = (count + lifts - 1) / lifts;
+    long[][] cost = new long[count][lifts * copies];
+    for (int i = 0; i < count; i++) {
+      for (int l = 0; l < lifts; l++) {
+        long eta = bank.liftList.get(l).estimateArrivalTime(floors[i], directions[i]);
+        for (int k = 0; k < copies; k++)
+          cost[i][k * lifts + l] = eta + k * config.getStopTime();
+      }
+    }
+
+    int[] columns = MinCostMatching.solve(cost);
+    for (int i = 0; i < count; i++)
+      bank.liftList.get(columns[i] % lifts).addRequest(floors[i], directions[i]);
+  }
+
+  /** Move the calls still lit on the given lift into the arrays, return the new count */
+  private int collectPendingCalls(FloorSet pending, int direction, int light,
+                                  int[] floors, int[] directions, int count) {
+    for (int f = pending.first(); f != FloorSet.NONE; f = pending.nextAbove(f)) {
+      // A lift may have stopped here for someone else in the meantime
+      if (buttons.get(light, f, direction).isLightOn()) {
+        floors[count] = f;
+        directions[count++] = direction;
+      }
+    }
+    pending.clear();
+    return count;
+  }
+
+  public BuildingConfig getConfig() {
+    return this.config;
+  }
+
+  public Set<Lift> getSyncLifts() {
+    return this.syncLifts;
+  }
+
+  /** Return the sync lifts of the same bank as the given sync lift */
+  public Set<Lift> getSyncLifts(Lift lift) {
+    return liftBanks[lift.getIndex()].lifts;
+  }
+
+  /** A destination entered at a hall terminal, until its lift picks it up */
+  private static class Call {
+    private final int floor;
+    private final int destination;
+    private final int direction;
+
+    Call(int floor, int destination, int direction) {
+      this.floor       = floor;
+      this.destination = destination;
+      this.direction   = direction;
+    }
+  }
+
+  /** The sync lifts of one zone, and the calls they have collected for the next batch */
+  private class Bank {
+    private final Set<Lift> lifts      = new LinkedHashSet<>();
+    private final List<Lift> liftList  = new ArrayList<>();      // same lifts, for indexing in a batch
+    private final FloorSet pendingUp   = new FloorSet(config);   // up calls waiting for the next batch
+    private final FloorSet pendingDown = new FloorSet(config);   // down calls waiting for the next batch
+  }
+}
@@ -0,0 +1,76 @@
+package sim;
+
+import static constants.CommonConstant.DIRECTION_UP;
+import static constants.CommonConstant.DIRECTION_DOWN;
+
+/**
+ * The state behind an elevator button outside the lifts.
+ *
+ * A view may listen to it in order to redraw its light.
+ */
+public class HallButton {
+
+  private final String elevatorId; // lift it belongs to
+  private final int floor;         // floor it is at
+  private final int direction;     // direction it faces
+  private final boolean isUsable;  // top and bottom floors only have one
+  private boolean isOn;            // its light, on/off
+  private Runnable listener;
+
+  private HallButton(String elevatorId, int floor, int direction, boolean isUsable) {
+    this.elevatorId = elevatorId;
+    this.floor      = floor;
+    this.direction  = direction;
+    this.isUsable   = isUsable;
+    this.isOn       = false;
+  }
+
+  public static HallButton createUpButton(String elevatorId, int floor, boolean isUsable) {
+    return new HallButton(elevatorId, floor, DIRECTION_UP, isUsable);
+  }
+
+  public static HallButton createDownButton(String elevatorId, int floor, boolean isUsable) {
+    return new HallButton(elevatorId, floor, DIRECTION_DOWN, isUsable);
+  }
+
+  public String getElevatorId() {
+    return this.elevatorId;
+  }
+
+  public int getFloor() {
+    return this.floor;
+  }
+
+  public int getDirection() {
+    return this.direction;
+  }
+
+  public boolean isUsable() {
+    return this.isUsable;
+  }
+
+  public boolean isLightOn() {
+    return this.isOn;
+  }
+
+  public void turnOn() {
+    setLight(true);
+  }
+
+  public void turnOff() {
+    setLight(false);
+  }
+
+  /** Get told whenever the light changes */
+  public void setListener(Runnable listener) {
+    this.listener = listener;
+  }
+
+  private void setLight(boolean on) {
+    if (isOn == on)
+      return;
+    isOn = on;
+    if (listener != null)
+      listener.run();
+  }
+}
@@ -0,0 +1,98 @@
+package sim;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values, safe to record and read from
+ * any thread without locking.
+ *
+ * Values below 16 are counted exactly. Above that, every power of two
+ * is split into 16 buckets, so a value is known within about 6%.
+ */
+public class Histogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS     = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS         = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts;
+  private final AtomicLong total; // sum of all values
+  private final AtomicLong max;
+
+  public Histogram() {
+    this.counts = new AtomicLongArray(BUCKETS);
+    this.total  = new AtomicLong();
+    this.max    = new AtomicLong();
+  }
+
+  public void record(long value) {
+    value = Math.max(value, 0L);
+    counts.incrementAndGet(indexOf(value));
+    total.addAndGet(value);
+    raiseMax(value);
+  }
+
+  /** Add everything recorded by the other histogram to this one */
+  public void add(Histogram other) {
+    for (int i = 0; i < BUCKETS; i++) {
+      long count = other.counts.get(i);
+      if (count > 0)
+        counts.addAndGet(i, count);
+    }
+    total.addAndGet(other.total.get());
+    raiseMax(other.getMax());
+  }
+
+  public long getCount() {
+    long count = 0L;
+    for (int i = 0; i < BUCKETS; i++)
+      count += counts.get(i);
+    return count;
+  }
+
+  public double getMean() {
+    long count = getCount();
+    return count == 0 ? 0.0 : total.get() / (double) count;
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  /** Return the value which the given percent of the records do not exceed */
+  public long getPercentile(double percent) {
+    long count = getCount();
+    if (count == 0)
+      return 0L;
+
+    long rank = Math.max(1L, (long) Math.ceil(percent / 100.0 * count));
+    long seen = 0L;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank)
+        return Math.min(highestValueOf(i), getMax());
+    }
+    return getMax();
+  }
+
+  private void raiseMax(long value) {
+    long current = max.get();
+    while (value > current && !max.compareAndSet(current, value))
+      current = max.get();
+  }
+
+  private static int indexOf(long value) {
+    if (value < SUB_BUCKETS)
+      return (int) value;
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  private static long highestValueOf(int index) {
+    if (index < SUB_BUCKETS)
+      return index;
+    int shift = index / SUB_BUCKETS - 1;
+    long low = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return low + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,627 @@
+package sim;
+
+import static constants.CommonConstant.*;
+import static constants.SimulationConstant.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A lift in the headless simulation.
+ *
+ * Every state change happens on the event clock,
+ * views only read the state and never drive it.
+ */
+public class Lift {
+
+  private final String id;
+  private final int index; // position among all lifts, from left to right
+  private final boolean isSynchronized;
+  private final BuildingConfig config;
+  private final EventClock clock;
+
+  private ElevatorState state;
+  private int direction;
+  private int currentFloor;
+  private int nextFloor;    // next floor to reach
+  private int departFloor;  // floor the current movement started from
+  private long phaseStart;  // time the current state began
+  private long phaseLength; // how long the current state lasts
+
+  private Set<Passenger> passengers;     // people who stand inside the lift
+  private FloorSet destinations;         // floors the lift will stop
+  private FloorSet upRequests;           // going up requests associated with the lift
+  private FloorSet downRequests;         // going down requests associated with the lift
+  private ButtonPanel buttons;           // elevator buttons in the whole building
+  private List<Set<Passenger>> waiters;  // people waiting outside, by level and direction
+  private Runnable stateListener;
+  private LiftStats stats;
+  private EventRecorder recorder;
+
+  // When lift is going down from a higher floor to a lower one for an UP request,
+  // Its direction should change after reaching that lower floor, vice versa.
+  private boolean needReverse;
+
+  public Lift(String id,
+              int index,
+              boolean isSynchronized,
+              int startFloor,
+              BuildingConfig config,
+              EventClock clock,
+              ButtonPanel buttons) {
+    this.id = id;
+    this.index = index;
+    this.isSynchronized = isSynchronized;
+    this.config = config;
+    this.clock = clock;
+    this.buttons = buttons;
+
+    this.state = ElevatorState.IDLE;
+    this.direction = NO_DIRECTION;
+    this.currentFloor = startFloor;
+    this.nextFloor = currentFloor;
+    this.departFloor = currentFloor;
+    this.needReverse = false;
+
+    this.passengers   = new HashSet<>();
+    this.destinations = new FloorSet(config);
+    this.upRequests   = new FloorSet(config);
+    this.downRequests = new FloorSet(config);
+    this.waiters      = new ArrayList<>(Collections.nCopies(config.getFloors() * 2, null));
+    this.stats        = new LiftStats(id);
+    this.recorder     = EventRecorder.NONE;
+  }
+
+  /** Put the lift back to idle at the floor with nothing to do, used by replays and benchmarks */
+  void reset(int floor) {
+    state = ElevatorState.IDLE;
+    direction = NO_DIRECTION;
+    currentFloor = floor;
+    nextFloor = floor;
+    departFloor = floor;
+    needReverse = false;
+    destinations.clear();
+    upRequests.clear();
+    downRequests.clear();
+  }
+
+  /** Start checking the status periodically */
+  public void start() {
+    clock.schedulePeriodic(OPERATION_INTERVAL, () -> operate());
+  }
+
+  /** Listen for any status change and respond properly */
+  private void operate() {
+    // Do not interfere with the lift once it has decided
+    // which floor to go and currently heading to that floor
+    if (isMoving()) {
+      return;
+    }
+
+    // Now, the corresponding request on this floor should be satisfied
+    if (state == ElevatorState.OPENING || isDoorOpened()) {
+      removeRequest(currentFloor, direction);
+      return;
+    }
+
+    // Wait for doors to close before making any decision
+    if (!isDoorClosed()) {
+      return;
+    }
+
+    // Someone pressed the button here while the doors were closing
+    if (hasRequest(currentFloor, direction)) {
+      openDoors();
+      return;
+    }
+
+    // Now, figure out which floor to go
+    if (direction == DIRECTION_UP)
+      handleGoingUp();
+    else if (direction == DIRECTION_DOWN)
+      handleGoingDown();
+    else
+      handleLiftSuspend();
+  }
+
+  /** Find out the optimal floor to stop next while going up */
+  void handleGoingUp() {
+    destinations.addAllAbove(upRequests, currentFloor);
+    if (!destinations.isEmpty())
+      startMoving(destinations.pollFirst());
+    else
+      handleLiftSuspend();
+  }
+
+  /** Find out the optimal floor to stop next while going down */
+  void handleGoingDown() {
+    destinations.addAllBelow(downRequests, currentFloor);
+    if (!destinations.isEmpty())
+      startMoving(destinations.pollLast());
+    else
+      handleLiftSuspend();
+  }
+
+  /** Find out the optimal floor to stop next if uncertain */
+  void handleLiftSuspend() {
+    // The direction need to be recalculated
+    direction = NO_DIRECTION;
+
+    // If no one is trying to use this lift, then staying idle
+    if (upRequests.isEmpty() && downRequests.isEmpty()) {
+      stats.tripEnded();
+      return;
+    }
+
+    // First figure out which direction to go
+    // new direction is determined by the relative position between
+    // the current floor and the nearest floor that has at least one request
+    int nearestFloor = nearerOf(upRequests.nearestTo(currentFloor),
+                                downRequests.nearestTo(currentFloor));
+
+    // Then figure out the exact floor to stop
+    // Typical case: the lift is at 10th, ready to move downward and
+    // there are requests like 8th UP, 6th UP, 4th UP at the same time,
+    // the lift should go down to 4th, change direction, and go up to
+    // satisfy these requests together instead of simply go down to 8th
+    needReverse = false;
+    if (currentFloor >= nearestFloor) {
+      direction = DIRECTION_DOWN;
+
+      if (upRequests.contains(nearestFloor) &&
+          !downRequests.contains(nearestFloor)) {
+        needReverse = true;
+        startMoving(upRequests.first());
+      } else {
+        startMoving(nearestFloor);
+      }
+    } else {
+      direction = DIRECTION_UP;
+
+      if (downRequests.contains(nearestFloor) &&
+          !upRequests.contains(nearestFloor)) {
+        needReverse = true;
+        startMoving(downRequests.last());
+      } else {
+        startMoving(nearestFloor);
+      }
+    }
+  }
+
+  /** Return the floor closer to the current one, the lower one on a tie */
+  private int nearerOf(int floor1, int floor2) {
+    if (floor1 == FloorSet.NONE)
+      return floor2;
+    if (floor2 == FloorSet.NONE)
+      return floor1;
+
+    int level = config.toLevel(currentFloor);
+    int distance1 = Math.abs(config.toLevel(floor1) - level);
+    int distance2 = Math.abs(config.toLevel(floor2) - level);
+    if (distance1 != distance2)
+      return distance1 < distance2 ? floor1 : floor2;
+    return Math.min(floor1, floor2);
+  }
+
+  /** Head to the given floor, the doors open once it is reached */
+  private void startMoving(int floorToReach) {
+    departFloor = currentFloor;
+    nextFloor = floorToReach;
+    stats.departed(passengers.size(), direction);
+    enterState(ElevatorState.MOVING, config.getFlightTime(departFloor, nextFloor));
+    clock.schedule(phaseLength, () -> arrive());
+  }
+
+  private void arrive() {
+    currentFloor = nextFloor; // destination has reached
+    stats.stopped();
+    recorder.stop(clock.now(), index, currentFloor);
+
+    // Tell people who are waiting outside of the lift as soon as the lift stops
+    // that if this lift is the right one for them because they will walk in only
+    // when their heading direction is the same as the lift's
+    if (needReverse) {
+      needReverse = false;
+      direction = direction == DIRECTION_UP ? DIRECTION_DOWN : DIRECTION_UP;
+    }
+    openDoors();
+  }
+
+  private void openDoors() {
+    recorder.doorsOpening(clock.now(), index, currentFloor);
+    enterState(ElevatorState.OPENING, config.getDoorOpenTime());
+    clock.schedule(phaseLength, () -> doorsOpened());
+  }
+
+  private void doorsOpened() {
+    enterState(ElevatorState.WAITING, config.getDoorHoldTime());
+    askAnyoneWantToGetOut();
+    askAnyoneWaitingToGetIn();
+    clock.schedule(phaseLength, () -> closeDoors());
+  }
+
+  private void closeDoors() {
+    enterState(ElevatorState.CLOSING, config.getDoorCloseTime());
+    clock.schedule(phaseLength, () -> doorsClosed());
+  }
+
+  private void doorsClosed() {
+    enterState(ElevatorState.IDLE, 0L);
+    recorder.doorsClosed(clock.now(), index, currentFloor);
+  }
+
+  private void enterState(ElevatorState newState, long length) {
+    stats.stateChanged(state, clock.now());
+    state = newState;
+    phaseStart = clock.now();
+    phaseLength = length;
+    if (stateListener != null)
+      stateListener.run();
+  }
+
+  /** Get told whenever the lift changes its state */
+  public void setStateListener(Runnable listener) {
+    this.stateListener = listener;
+  }
+
+  /** Remind passengers that it maybe the time for them to leave */
+  private void askAnyoneWantToGetOut() {
+    Iterator<Passenger> iterator = passengers.iterator();
+    while (iterator.hasNext()) {
+      Passenger p = iterator.next();
+      if (p.getLegEndFloor() == currentFloor) {
+        iterator.remove();
+        p.walkoutLift();
+      }
+    }
+  }
+
+  /** Let people waiting on this floor for the same direction walk in */
+  private void askAnyoneWaitingToGetIn() {
+    Set<Passenger> waiters = getWaiters(currentFloor, direction, false);
+    if (waiters == null || waiters.isEmpty())
+      return;
+
+    // Boarding cancels the subscriptions, so go through a copy
+    for (Passenger p : waiters.toArray(new Passenger[0])) {
+      p.liftArrived(this);
+    }
+  }
+
+  /** Get told when the doors are fully opened on the floor for the direction */
+  public void subscribe(int floor, int direction, Passenger passenger) {
+    getWaiters(floor, direction, true).add(passenger);
+  }
+
+  public void unsubscribe(int floor, int direction, Passenger passenger) {
+    Set<Passenger> waiters = getWaiters(floor, direction, false);
+    if (waiters != null)
+      waiters.remove(passenger);
+  }
+
+  /** Let the lift tell the people waiting for the other one, and the other way round */
+  void shareWaiters(Lift other) {
+    this.waiters = other.waiters;
+  }
+
+  private Set<Passenger> getWaiters(int floor, int direction, boolean create) {
+    int index = config.toLevel(floor) * 2 + (direction == DIRECTION_UP ? 0 : 1);
+    Set<Passenger> result = waiters.get(index);
+    if (result == null && create) {
+      result = new LinkedHashSet<>();
+      waiters.set(index, result);
+    }
+    return result;
+  }
+
+  /** Add a person into lift's passenger list */
+  public void addPassenger(Passenger newPassenger) {
+    passengers.add(newPassenger);
+    destinations.add(newPassenger.getLegEndFloor());
+  }
+
+  /** Add a request to the lift's 'todo' list */
+  public void addRequest(int requestFloor, int requestDirection) {
+    recorder.assignment(clock.now(), index, requestFloor, requestDirection);
+    if (requestDirection == DIRECTION_UP)
+      upRequests.add(requestFloor);
+    else if (requestDirection == DIRECTION_DOWN)
+      downRequests.add(requestFloor);
+  }
+
+  /** Indicate if the lift still has to serve a request */
+  public boolean hasRequest(int requestFloor, int requestDirection) {
+    if (requestDirection == DIRECTION_UP)
+      return upRequests.contains(requestFloor);
+    if (requestDirection == DIRECTION_DOWN)
+      return downRequests.contains(requestFloor);
+    return false;
+  }
+
+  /** Indicate if the lift has to stop at the floor anyway, for someone inside or a call */
+  boolean willStopAt(int floor) {
+    return destinations.contains(floor) || upRequests.contains(floor) ||
+           downRequests.contains(floor) || (isMoving() && nextFloor == floor);
+  }
+
+  /**
+   * Give up a request the lift has not set off for yet, so that another
+   * lift can take it over. The lights stay as they are.
+   * Return false if the lift will stop there anyway.
+   */
+  boolean dropRequest(int requestFloor, int requestDirection) {
+    if (!hasRequest(requestFloor, requestDirection) ||
+        destinations.contains(requestFloor) || nextFloor == requestFloor)
+      return false;
+
+    if (requestDirection == DIRECTION_UP)
+      upRequests.remove(requestFloor);
+    else
+      downRequests.remove(requestFloor);
+    return true;
+  }
+
+  /** Return the up or down requests the lift has to serve */
+  FloorSet getRequests(int requestDirection) {
+    return requestDirection == DIRECTION_UP ? upRequests : downRequests;
+  }
+
+  /** Remove a request from the lift's "todo" list */
+  private void removeRequest(int requestFloor, int requestDirection) {
+    buttons.turnOff(index, requestFloor, requestDirection);
+    if (requestDirection == DIRECTION_UP)
+      upRequests.remove(requestFloor);
+    else if (requestDirection == DIRECTION_DOWN)
+      downRequests.remove(requestFloor);
+
+    // Turn off all associated lights of the bank if it is a sync lift,
+    // with destination dispatch each sync lift has its own lights
+    if (isSynchronized && !config.isDestinationDispatch()) {
+      Zone zone = config.getZone(index);
+      for (int i = zone.getFirstLift(); i < zone.getFirstLift() + zone.getLiftCount(); i++) {
+        if (config.isSyncLift(i))
+          buttons.turnOff(i, requestFloor, requestDirection);
+      }
+    }
+  }
+
+  public String getLiftId() {
+    return this.id;
+  }
+
+  public int getIndex() {
+    return this.index;
+  }
+
+  public boolean isSynchronized() {
+    return this.isSynchronized;
+  }
+
+  public ElevatorState getState() {
+    return this.state;
+  }
+
+  /** Return the floor the lift is at, or has just passed while moving */
+  public int getCurrentFloor() {
+    if (!isMoving())
+      return this.currentFloor;
+
+    double level = getLevel();
+    return config.toFloor(nextFloor > departFloor ?
+                          (int) Math.floor(level) :
+                          (int) Math.ceil(level));
+  }
+
+  /** Return the lift's height counted in levels from the lowest floor, sampled from its motion */
+  public double getLevel() {
+    int from = config.toLevel(isMoving() ? departFloor : currentFloor);
+    if (!isMoving())
+      return from;
+
+    int levels = config.toLevel(nextFloor) - from;
+    double covered = config.getMotion().getLevelsCovered(levels, clock.now() - phaseStart);
+    return from + (levels > 0 ? covered : -covered);
+  }
+
+  /**
+   * Estimate how long it takes until the doors open on the floor for the
+   * direction. The way is split into flights between the floors the lift
+   * has to stop at, each taking its time from the building's flight table.
+   */
+  public long estimateArrivalTime(int floor, int requestDirection) {
+    int target = config.toLevel(floor);
+    int heading = getHeading();
+
+    // Already there with the doors opening or opened
+    if (!isMoving() && config.toLevel(currentFloor) == target &&
+        (state == ElevatorState.OPENING || state == ElevatorState.WAITING) &&
+        (direction == requestDirection || direction == NO_DIRECTION)) {
+      return state == ElevatorState.OPENING ? getRemainingTime() : 0L;
+    }
+
+    // Time to finish the current flight or door cycle first
+    long time = 0L;
+    if (state == ElevatorState.OPENING)
+      time = getRemainingTime() + config.getDoorHoldTime() + config.getDoorCloseTime();
+    else if (state == ElevatorState.WAITING)
+      time = getRemainingTime() + config.getDoorCloseTime();
+    else if (state == ElevatorState.CLOSING || isMoving())
+      time = getRemainingTime();
+
+    // A moving lift goes on from the floor it is flying to
+    int position = config.toLevel(isMoving() ? nextFloor : currentFloor);
+
+    // The lift keeps its heading until the furthest stop, then turns around
+    int highest = getPendingLevel(true);
+    int lowest  = getPendingLevel(false);
+    int top     = Math.max(position, highest);
+    int bottom  = lowest < 0 ? position : Math.min(position, lowest);
+    long flights;
+    int stops;
+
+    if (heading == NO_DIRECTION) {
+      flights = getFlightTime(position, target);
+      stops   = countStops(position, target);
+    } else if (heading == DIRECTION_UP) {
+      if (requestDirection == DIRECTION_UP && target >= position) {
+        flights = getFlightTime(position, target);
+        stops   = countStops(position, target);
+      } else if (requestDirection == DIRECTION_DOWN) {
+        int turn = Math.max(top, target);
+        flights = getFlightTime(position, turn) + getFlightTime(turn, target);
+        stops   = countStops(position, turn) + countStops(turn, target) +
+                  (turn != target ? stopsAt(turn) : 0);
+      } else {
+        int low = Math.min(bottom, target);
+        flights = getFlightTime(position, top) + getFlightTime(top, low) +
+                  getFlightTime(low, target);
+        stops   = countStops(position, top) + countStops(top, low) +
+                  countStops(low, target) + stopsAt(top) +
+                  (low != target ? stopsAt(low) : 0);
+      }
+    } else {
+      if (requestDirection == DIRECTION_DOWN && target <= position) {
+        flights = getFlightTime(position, target);
+        stops   = countStops(position, target);
+      } else if (requestDirection == DIRECTION_UP) {
+        int turn = Math.min(bottom, target);
+        flights = getFlightTime(position, turn) + getFlightTime(turn, target);
+        stops   = countStops(position, turn) + countStops(turn, target) +
+                  (turn != target ? stopsAt(turn) : 0);
+      } else {
+        int high = Math.max(top, target);
+        flights = getFlightTime(position, bottom) + getFlightTime(bottom, high) +
+                  getFlightTime(high, target);
+        stops   = countStops(position, bottom) + countStops(bottom, high) +
+                  countStops(high, target) + stopsAt(bottom) +
+                  (high != target ? stopsAt(high) : 0);
+      }
+    }
+    // The doors open where a moving lift lands before it flies on
+    if (isMoving() && flights > 0)
+      stops++;
+    return time + flights + stops * config.getStopTime();
+  }
+
+  /** Return how long the flights between the levels take, stopping wherever the lift has to */
+  private long getFlightTime(int from, int to) {
+    long time = 0L;
+    while (from != to) {
+      int next = getNextStop(from, to);
+      time += config.getMotion().getFlightTime(next - from);
+      from = next;
+    }
+    return time;
+  }
+
+  /** Return the first level after the given one where the lift stops on its way to the other */
+  private int getNextStop(int level, int to) {
+    int floor = config.toFloor(level);
+    boolean up = to > level;
+    int next = to;
+    next = nearerStop(next, up ? destinations.nextAbove(floor) : destinations.nextBelow(floor), up);
+    next = nearerStop(next, up ? upRequests.nextAbove(floor)   : upRequests.nextBelow(floor), up);
+    next = nearerStop(next, up ? downRequests.nextAbove(floor) : downRequests.nextBelow(floor), up);
+    return next;
+  }
+
+  private int nearerStop(int next, int floor, boolean up) {
+    if (floor == FloorSet.NONE)
+      return next;
+    int level = config.toLevel(floor);
+    return up ? Math.min(next, level) : Math.max(next, level);
+  }
+
+  /** Return the direction the lift is actually travelling or about to */
+  private int getHeading() {
+    if (isMoving() && nextFloor != departFloor)
+      return nextFloor > departFloor ? DIRECTION_UP : DIRECTION_DOWN;
+    return direction;
+  }
+
+  /** Return the highest or the lowest level the lift has to stop, -1 if none */
+  private int getPendingLevel(boolean highest) {
+    int result = -1;
+    result = pickLevel(result, highest ? destinations.last() : destinations.first(), highest);
+    result = pickLevel(result, highest ? upRequests.last()   : upRequests.first(), highest);
+    result = pickLevel(result, highest ? downRequests.last() : downRequests.first(), highest);
+    return result;
+  }
+
+  private int pickLevel(int result, int floor, boolean highest) {
+    if (floor == FloorSet.NONE)
+      return result;
+    int level = config.toLevel(floor);
+    if (result < 0 || (highest ? level > result : level < result))
+      return level;
+    return result;
+  }
+
+  /** Return 1 if the lift has to stop at the level, otherwise 0 */
+  private int stopsAt(int level) {
+    return countStops(level - 1, level + 1);
+  }
+
+  /** Count the stops strictly between two levels */
+  private int countStops(int from, int to) {
+    int low  = Math.min(from, to) + 1;
+    int high = Math.max(from, to) - 1;
+    if (low > high)
+      return 0;
+    return FloorSet.countUnion(destinations, upRequests, downRequests,
+                               config.toFloor(low), config.toFloor(high));
+  }
+
+  /** Return how long the current state still lasts */
+  private long getRemainingTime() {
+    return Math.max(0L, phaseStart + phaseLength - clock.now());
+  }
+
+  /** Return how far the current state has gone, from 0 to 1 */
+  public double getPhaseProgress() {
+    if (phaseLength <= 0)
+      return 1.0;
+    return Math.min(1.0, (clock.now() - phaseStart) / (double) phaseLength);
+  }
+
+  public int getDirection() {
+    return this.direction;
+  }
+
+  public boolean isMoving() {
+    return this.state == ElevatorState.MOVING;
+  }
+
+  /** Indicate if the doors are fully opened */
+  public boolean isDoorOpened() {
+    return this.state == ElevatorState.WAITING;
+  }
+
+  /** Indicate if the doors are fully closed */
+  public boolean isDoorClosed() {
+    // Doors are also closed while lift is moving, but we don't care here
+    return this.state == ElevatorState.IDLE;
+  }
+
+  public int getNextStopFloor() {
+    return this.nextFloor;
+  }
+
+  /** Tell the recorder about every stop, door cycle and assigned call */
+  void setRecorder(EventRecorder recorder) {
+    this.recorder = recorder;
+  }
+
+  public LiftStats getStats() {
+    return this.stats;
+  }
+
+  public Set<Passenger> getPassengers() {
+    return this.passengers;
+  }
+}
@@ -0,0 +1,79 @@
+package sim;
+
+import static constants.SimulationConstant.ElevatorState;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * How one lift spends its time, safe to read from any thread.
+ *
+ * A trip is one sweep in one direction, it ends when the lift turns
+ * around or has nothing left to do. The load is counted every time
+ * the lift departs.
+ */
+public class LiftStats {
+
+  private final String liftId;
+  private final AtomicLongArray stateTimes; // time spent in each state, by ordinal
+  private final Histogram stopsPerTrip;
+  private final Histogram load;             // passengers on board at each departure
+  private long stateSince;                  // time the current state began
+  private int stops;                        // stops made in the current trip
+  private int tripDirection;                // direction of the current trip
+
+  public LiftStats(String liftId) {
+    this.liftId = liftId;
+    this.stateTimes = new AtomicLongArray(ElevatorState.values().length);
+    this.stopsPerTrip = new Histogram();
+    this.load = new Histogram();
+  }
+
+  /** The lift leaves one state for another */
+  void stateChanged(ElevatorState oldState, long now) {
+    if (oldState != null)
+      stateTimes.addAndGet(oldState.ordinal(), now - stateSince);
+    stateSince = now;
+  }
+
+  void departed(int passengers, int direction) {
+    if (direction != tripDirection)
+      tripEnded();
+    tripDirection = direction;
+    load.record(passengers);
+  }
+
+  void stopped() {
+    stops++;
+  }
+
+  /** The lift has nothing left to do */
+  void tripEnded() {
+    if (stops > 0)
+      stopsPerTrip.record(stops);
+    stops = 0;
+  }
+
+  public String getLiftId() {
+    return this.liftId;
+  }
+
+  /** Return the time spent in the state so far, the current state not included */
+  public long getTimeIn(ElevatorState state) {
+    return stateTimes.get(state.ordinal());
+  }
+
+  /** Return the time spent with the doors opening, opened or closing */
+  public long getDoorTime() {
+    return getTimeIn(ElevatorState.OPENING) +
+           getTimeIn(ElevatorState.WAITING) +
+           getTimeIn(ElevatorState.CLOSING);
+  }
+
+  public Histogram getStopsPerTrip() {
+    return this.stopsPerTrip;
+  }
+
+  public Histogram getLoad() {
+    return this.load;
+  }
+}
@@ -0,0 +1,120 @@
+package sim;
+
+import static constants.SimulationConstant.ElevatorState;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What the building has done so far: how long people wait and ride,
+ * and how the lifts spend their time.
+ *
+ * Everything is recorded into histograms as it happens, so the numbers
+ * can be read at any time while the simulation runs.
+ */
+public class Metrics {
+
+  private final BuildingConfig config;
+  private final Histogram[] floorWaitTimes; // waiting time by start level
+  private final Histogram waitTime;         // from pressing the first button to walking in
+  private final Histogram rideTime;         // from walking in to walking out
+  private final Histogram excessRideTime;   // ride beyond the nonstop flight between the two floors
+  private final Histogram journeyTime;      // from entering the hall to leaving
+  private final List<LiftStats> liftStats;  // by lift index
+
+  public Metrics(BuildingConfig config, List<Lift> lifts) {
+    this.config = config;
+    this.floorWaitTimes = new Histogram[config.getFloors()];
+    for (int i = 0; i < floorWaitTimes.length; i++)
+      floorWaitTimes[i] = new Histogram();
+    this.waitTime    = new Histogram();
+    this.rideTime    = new Histogram();
+    this.excessRideTime = new Histogram();
+    this.journeyTime = new Histogram();
+
+    List<LiftStats> stats = new ArrayList<>();
+    for (Lift lift : lifts)
+      stats.add(lift.getStats());
+    this.liftStats = Collections.unmodifiableList(stats);
+  }
+
+  /** Record the trip of someone who has left the building */
+  void personLeft(Passenger person) {
+    long wait = person.getWaitingTime();
+    floorWaitTimes[config.toLevel(person.getStartFloor())].record(wait);
+    waitTime.record(wait);
+    rideTime.record(person.getRidingTime());
+    excessRideTime.record(person.getRidingTime() -
+                          config.getFlightTime(person.getStartFloor(), person.getEndFloor()));
+    journeyTime.record(person.getJourneyTime());
+  }
+
+  public Histogram getWaitTime() {
+    return this.waitTime;
+  }
+
+  public Histogram getWaitTime(int floor) {
+    return this.floorWaitTimes[config.toLevel(floor)];
+  }
+
+  public Histogram getRideTime() {
+    return this.rideTime;
+  }
+
+  /** Return how much longer people rode than a lift flying them straight there would take */
+  public Histogram getExcessRideTime() {
+    return this.excessRideTime;
+  }
+
+  public Histogram getJourneyTime() {
+    return this.journeyTime;
+  }
+
+  public LiftStats getLiftStats(int index) {
+    return this.liftStats.get(index);
+  }
+
+  public List<LiftStats> getLiftStats() {
+    return this.liftStats;
+  }
+
+  /** Print everything recorded so far */
+  public void dump(PrintStream out) {
+    out.println("Trips of " + journeyTime.getCount() + " people, in seconds");
+    print(out, "Wait", waitTime);
+    print(out, "Ride", rideTime);
+    print(out, "Excess", excessRideTime);
+    print(out, "Journey", journeyTime);
+
+    out.println("Wait by floor");
+    for (int level = floorWaitTimes.length - 1; level >= 0; level--) {
+      if (floorWaitTimes[level].getCount() > 0)
+        print(out, "  " + config.toFloor(level), floorWaitTimes[level]);
+    }
+
+    out.println("Lifts, time in seconds");
+    for (LiftStats stats : liftStats) {
+      out.printf("  %-8s idle %8.0f  moving %8.0f  doors %8.0f" +
+                 "  stops/trip %5.2f  load %5.2f (max %d)%n",
+                 stats.getLiftId(),
+                 stats.getTimeIn(ElevatorState.IDLE) / 1000.0,
+                 stats.getTimeIn(ElevatorState.MOVING) / 1000.0,
+                 stats.getDoorTime() / 1000.0,
+                 stats.getStopsPerTrip().getMean(),
+                 stats.getLoad().getMean(),
+                 stats.getLoad().getMax());
+    }
+  }
+
+  private static void print(PrintStream out, String name, Histogram histogram) {
+    out.printf("  %-8s n %7d  mean %6.1f  p50 %6.1f  p95 %6.1f  max %6.1f%n",
+               name,
+               histogram.getCount(),
+               histogram.getMean() / 1000.0,
+               histogram.getPercentile(50) / 1000.0,
+               histogram.getPercentile(95) / 1000.0,
+               histogram.getMax() / 1000.0);
+  }
+}
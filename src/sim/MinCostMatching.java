@@ -0,0 +1,82 @@
+package sim;
+
+import java.util.Arrays;
+
+/**
+ * Minimum total cost assignment of rows to columns, the Hungarian method.
+ *
+ * Every row gets a different column, so there must be at least as
+ * many columns as rows. It runs in O(rows * rows * columns).
+ */
+final class MinCostMatching {
+
+  private MinCostMatching() {
+  }
+
+  /** Return the column given to each row */
+  static int[] solve(long[][] cost) {
+    int n = cost.length;
+    int m = n == 0 ? 0 : cost[0].length;
+    if (n > m)
+      throw new IllegalArgumentException("More rows than columns: " + n + " > " + m);
+
+    // Potentials and matching are 1-based, index 0 is a virtual row/column
+    long[] u = new long[n + 1];
+    long[] v = new long[m + 1];
+    int[] rowOf = new int[m + 1];
+    int[] way = new int[m + 1];
+    long[] minTo = new long[m + 1];
+    boolean[] used = new boolean[m + 1];
+
+    for (int i = 1; i <= n; i++) {
+      rowOf[0] = i;
+      int j0 = 0;
+      Arrays.fill(minTo, Long.MAX_VALUE);
+      Arrays.fill(used, false);
+
+      // Grow an alternating path from the new row until a free column is found
+      do {
+        used[j0] = true;
+        int i0 = rowOf[j0];
+        long delta = Long.MAX_VALUE;
+        int j1 = 0;
+        for (int j = 1; j <= m; j++) {
+          if (used[j])
+            continue;
+          long reduced = cost[i0 - 1][j - 1] - u[i0] - v[j];
+          if (reduced < minTo[j]) {
+            minTo[j] = reduced;
+            way[j] = j0;
+          }
+          if (minTo[j] < delta) {
+            delta = minTo[j];
+            j1 = j;
+          }
+        }
+        for (int j = 0; j <= m; j++) {
+          if (used[j]) {
+            u[rowOf[j]] += delta;
+            v[j] -= delta;
+          } else {
+            minTo[j] -= delta;
+          }
+        }
+        j0 = j1;
+      } while (rowOf[j0] != 0);
+
+      // Flip the path
+      do {
+        int j1 = way[j0];
+        rowOf[j0] = rowOf[j1];
+        j0 = j1;
+      } while (j0 != 0);
+    }
+
+    int[] columnOf = new int[n];
+    for (int j = 1; j <= m; j++) {
+      if (rowOf[j] != 0)
+        columnOf[rowOf[j] - 1] = j - 1;
+    }
+    return columnOf;
+  }
+}
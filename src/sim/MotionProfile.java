@@ -0,0 +1,131 @@
+package sim;
+
+/**
+ * How a lift moves between two floors.
+ *
+ * A flight starts and ends at rest. The acceleration changes no faster
+ * than the jerk, never exceeds the rated acceleration, and the speed
+ * never exceeds the rated speed, which gives the usual seven phases:
+ * jerk up, constant acceleration, jerk down, cruise, and the same
+ * backwards to stop. Short flights skip the phases they have no room for.
+ *
+ * Every part has a closed form, so the flight time of every number of
+ * floors is worked out once per building, and a view finds where a
+ * lift is by sampling the position at the time passed.
+ */
+public class MotionProfile {
+  // Sign of the jerk in each of the seven phases
+  private static final int[] PHASE_JERKS = {1, 0, -1, 0, -1, 0, 1};
+
+  private final double speed;        // rated speed, in metres per second
+  private final double acceleration; // rated acceleration, in metres per second squared
+  private final double jerk;         // in metres per second cubed
+  private final double storeyHeight; // distance between two floors, in metres
+  private final long[] flightTimes;  // time of a flight over each number of floors, in milliseconds
+
+  public MotionProfile(double speed, double acceleration, double jerk,
+                       double storeyHeight, int floors) {
+    if (!(speed > 0) || !(acceleration > 0) || !(jerk > 0) || !(storeyHeight > 0))
+      throw new IllegalArgumentException("Motion needs positive speed, acceleration, jerk and height");
+
+    this.speed        = speed;
+    this.acceleration = acceleration;
+    this.jerk         = jerk;
+    this.storeyHeight = storeyHeight;
+    this.flightTimes  = new long[floors];
+    for (int levels = 1; levels < floors; levels++)
+      flightTimes[levels] = Math.round(getFlightSeconds(levels * storeyHeight) * 1000.0);
+  }
+
+  public double getSpeed() {
+    return this.speed;
+  }
+
+  public double getAcceleration() {
+    return this.acceleration;
+  }
+
+  public double getJerk() {
+    return this.jerk;
+  }
+
+  public double getStoreyHeight() {
+    return this.storeyHeight;
+  }
+
+  /** Return how long a flight over the number of floors takes, in milliseconds */
+  public long getFlightTime(int levels) {
+    return this.flightTimes[Math.abs(levels)];
+  }
+
+  /** Return how many floors a flight over the given number has covered after the time */
+  public double getLevelsCovered(int levels, long time) {
+    int distance = Math.abs(levels);
+    if (time >= flightTimes[distance])
+      return distance;
+    return getDistance(distance * storeyHeight, time / 1000.0) / storeyHeight;
+  }
+
+  /** Return the highest speed a flight over the distance reaches */
+  private double getPeakSpeed(double distance) {
+    // Speeding up and slowing down each cover half of their time at the peak speed
+    if (distance >= speed * getRampTime(speed))
+      return speed;
+
+    // Too short for the rated speed, but long enough for the full acceleration
+    double ramp = acceleration * acceleration / jerk;
+    double peak = (-ramp + Math.sqrt(ramp * ramp + 4 * acceleration * distance)) / 2;
+    if (peak >= ramp)
+      return peak;
+    // Too short even for that, the acceleration peaks and falls at once
+    return Math.cbrt(distance * distance * jerk / 4);
+  }
+
+  /** Return how long it takes from rest to the given speed */
+  private double getRampTime(double peakSpeed) {
+    double jerkTime = getJerkTime(peakSpeed);
+    return 2 * jerkTime + getConstantTime(peakSpeed, jerkTime);
+  }
+
+  /** Return how long the acceleration changes at each end of a ramp */
+  private double getJerkTime(double peakSpeed) {
+    return Math.min(acceleration / jerk, Math.sqrt(peakSpeed / jerk));
+  }
+
+  /** Return how long the acceleration stays constant during a ramp */
+  private double getConstantTime(double peakSpeed, double jerkTime) {
+    return Math.max(0.0, peakSpeed / (jerk * jerkTime) - jerkTime);
+  }
+
+  private double getFlightSeconds(double distance) {
+    double peak = getPeakSpeed(distance);
+    double ramp = getRampTime(peak);
+    // Both ramps together cover as much as one ramp at the peak speed, the rest is cruised
+    return 2 * ramp + (distance - peak * ramp) / peak;
+  }
+
+  /** Return the distance covered after the time, seconds into a flight over the distance */
+  private double getDistance(double distance, double time) {
+    double peak = getPeakSpeed(distance);
+    double jerkTime = getJerkTime(peak);
+    double constantTime = getConstantTime(peak, jerkTime);
+    double cruiseTime = (distance - peak * getRampTime(peak)) / peak;
+
+    // Go through the phases one after another, with the jerk of each
+    double position = 0.0;
+    double velocity = 0.0;
+    double accel    = 0.0;
+    for (int phase = 0; phase < PHASE_JERKS.length; phase++) {
+      double length = phase == 3 ? cruiseTime : phase % 2 == 1 ? constantTime : jerkTime;
+      double j  = PHASE_JERKS[phase] * jerk;
+      double dt = Math.min(length, time);
+      position += velocity * dt + accel * dt * dt / 2 + j * dt * dt * dt / 6;
+      velocity += accel * dt + j * dt * dt / 2;
+      accel    += j * dt;
+      time -= dt;
+      if (time <= 0)
+        break;
+    }
+    return Math.min(position, distance);
+  }
+}
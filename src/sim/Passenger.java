@@ -0,0 +1,333 @@
+package sim;
+
+import static constants.CommonConstant.*;
+import static constants.SimulationConstant.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * A person in the headless simulation.
+ *
+ * The person walks along the hall from one side, presses the buttons of
+ * every lift it passes, waits, rides the chosen lift and walks out.
+ * In a zoned building the trip may take several legs, the person walks
+ * out at a floor two banks share and calls the lifts of the next leg.
+ */
+public class Passenger {
+
+  private final String name;
+  private final int startFloor;
+  private final int endFloor;
+  private final int[] route;         // start, floors to change lifts at, end
+  private final int appearSide;
+  private final GroupController controller;
+  private final EventClock clock;
+  private final Queue<Passenger> leavers; // where this person goes once it has left
+
+  private PersonState state;
+  private List<Lift> lifts;          // all lifts
+  private List<Lift> requestedLifts; // lifts this person is currently waiting, one per sync bank
+  private List<Zone> calledBanks;    // banks whose sync lifts have been called for this leg
+  private boolean destinationEntered; // the destination has been entered for this leg
+  private Lift assignedLift;         // the sync lift given for the destination, if any
+  private Lift chosenLift;           // the lift this person chooses in the end
+  private int leg;                   // current leg, from route[leg] to route[leg + 1]
+  private int passedLifts;           // lifts passed while entering
+  private long phaseStart;           // time the current state began
+  private long phaseLength;          // how long the current state lasts
+  private long appearTime;           // time the person came in
+  private long callTime;             // time the first button of the leg was pressed
+  private long waitingTime;          // time waited for lifts in all legs so far
+  private long ridingTime;           // time spent in lifts in all legs so far
+  private long[] stateTimes;         // time each state began last, by ordinal
+  private Runnable stateListener;
+
+  public Passenger(String name,
+                   int startFloor,
+                   int endFloor,
+                   int appearSide,
+                   List<Lift> lifts,
+                   GroupController controller,
+                   EventClock clock,
+                   Queue<Passenger> leavers) {
+
+    this.name = name;
+    this.startFloor = startFloor;
+    this.endFloor = endFloor;
+    this.appearSide = appearSide;
+    this.controller = controller;
+    this.clock = clock;
+    this.leavers = leavers;
+
+    this.route = controller.getConfig().getRoute(startFloor, endFloor);
+    if (this.route == null)
+      throw new IllegalArgumentException("No way from " + startFloor + " to " + endFloor);
+
+    this.lifts = lifts;
+    this.requestedLifts = new ArrayList<>();
+    this.calledBanks = new ArrayList<>();
+    this.assignedLift = null;
+    this.chosenLift = null;
+    this.leg = 0;
+    this.appearTime = clock.now();
+    this.waitingTime = 0L;
+    this.ridingTime = 0L;
+    this.stateTimes = new long[PersonState.values().length];
+    Arrays.fill(this.stateTimes, -1L);
+    this.startLeg();
+  }
+
+  /** Come into the hall of the leg's start floor and walk to the first lift to call */
+  private void startLeg() {
+    requestedLifts.clear();
+    calledBanks.clear();
+    destinationEntered = false;
+    passedLifts = 0;
+    callTime = -1L;
+    enterState(PersonState.ENTER, lifts.size() * BAY_WALK_TIME);
+
+    // Pass lifts one by one, in the order they are met from the appearing side
+    int first = nextBay(0);
+    if (first >= lifts.size())
+      throw new IllegalStateException("No lift from " + getLegStartFloor() + " to " + getLegEndFloor());
+    clock.schedule((first + 1) * BAY_WALK_TIME, () -> passLift(first));
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  public int getStartFloor() {
+    return this.startFloor;
+  }
+
+  public int getEndFloor() {
+    return this.endFloor;
+  }
+
+  /** Return the floor the current leg starts from, the start floor unless changing lifts */
+  public int getLegStartFloor() {
+    return this.route[leg];
+  }
+
+  /** Return the floor the current leg goes to, the end floor on the last leg */
+  public int getLegEndFloor() {
+    return this.route[leg + 1];
+  }
+
+  /** Indicate if no more lifts have to be taken after the current one */
+  public boolean isLastLeg() {
+    return leg == route.length - 2;
+  }
+
+  /** Return how many times the person changes lifts on the way */
+  public int getTransfers() {
+    return route.length - 2;
+  }
+
+  public int getAppearSide() {
+    return this.appearSide;
+  }
+
+  public PersonState getState() {
+    return this.state;
+  }
+
+  /** Return the sync lift assigned at the destination terminal, null if none */
+  public Lift getAssignedLift() {
+    return this.assignedLift;
+  }
+
+  public Lift getChosenLift() {
+    return this.chosenLift;
+  }
+
+  /** Return how many lifts have been passed in the hall, fractions included */
+  public double getWalkedBays() {
+    if (state != PersonState.ENTER)
+      return passedLifts;
+    return Math.min(lifts.size(), (clock.now() - phaseStart) / (double) BAY_WALK_TIME);
+  }
+
+  /** Return how far the current state has gone, from 0 to 1 */
+  public double getPhaseProgress() {
+    if (phaseLength <= 0)
+      return 1.0;
+    return Math.min(1.0, (clock.now() - phaseStart) / (double) phaseLength);
+  }
+
+  /** Return how long the person waited for lifts in all legs, -1 if not boarded yet */
+  public long getWaitingTime() {
+    if (getStateTime(PersonState.WALK_IN) < 0)
+      return -1L;
+    return waitingTime;
+  }
+
+  /** Return how long the person has been in lifts in all legs, walking in included */
+  public long getRidingTime() {
+    return ridingTime;
+  }
+
+  /** Return how long the person has been in the building in total, -1 if not left yet */
+  public long getJourneyTime() {
+    long exitTime = getStateTime(PersonState.EXIT);
+    if (exitTime < 0)
+      return -1L;
+    return exitTime - appearTime;
+  }
+
+  /** Return the time the person entered the state the last time, -1 if not yet */
+  public long getStateTime(PersonState state) {
+    return this.stateTimes[state.ordinal()];
+  }
+
+  /** Return this person's heading direction in the current leg */
+  public int getDirection() {
+    return getLegStartFloor() >= getLegEndFloor() ? DIRECTION_DOWN : DIRECTION_UP;
+  }
+
+  /** Indicate if this person is done with the system */
+  public boolean isLifeCycleCompleted() {
+    return this.state == PersonState.EXIT;
+  }
+
+  /** Exit the containing lift, then leave or go on to the next leg */
+  public void walkoutLift() {
+    ridingTime += clock.now() - getStateTime(PersonState.WALK_IN);
+    enterState(PersonState.WALK_OUT, WALK_OUT_TIME);
+    if (isLastLeg()) {
+      clock.schedule(phaseLength, () -> leave());
+    } else {
+      clock.schedule(phaseLength, () -> {
+        leg++;
+        startLeg();
+      });
+    }
+  }
+
+  /** Be done with the system, and tell so by joining the leavers */
+  private void leave() {
+    enterState(PersonState.EXIT, 0L);
+    leavers.add(this);
+  }
+
+  /**
+   * Press the button of the lift at the bay, then walk on to the next
+   * lift still to call. Once a sync bank is called its other lifts
+   * are only walked past, and a requested lift which opens meanwhile
+   * is boarded at once.
+   */
+  private void passLift(int bay) {
+    if (state != PersonState.ENTER)
+      return;
+
+    passedLifts = bay + 1;
+    if (callTime < 0)
+      callTime = clock.now();
+    Lift lift = lifts.get(liftAt(bay));
+
+    if (!lift.isSynchronized()) {
+      controller.pressButton(lift, getLegStartFloor(), getDirection());
+      request(lift);
+    } else if (controller.getConfig().isDestinationDispatch()) {
+      // Enter the destination once, then only wait for the assigned lift
+      destinationEntered = true;
+      assignedLift = controller.enterDestination(getLegStartFloor(), getLegEndFloor());
+      if (assignedLift != null)
+        request(assignedLift);
+    } else {
+      // Press one button is sufficient for synchronized lifts of a bank
+      calledBanks.add(controller.getConfig().getZone(lift.getIndex()));
+      controller.pressButton(lift, getLegStartFloor(), getDirection());
+      request(lift);
+    }
+    if (state != PersonState.ENTER)
+      return;
+
+    // Enter the waiting phase when all lifts have been requested
+    int next = nextBay(bay + 1);
+    if (next >= lifts.size()) {
+      enterState(PersonState.WAITING, 0L);
+      return;
+    }
+    clock.schedule((next - bay) * BAY_WALK_TIME, () -> passLift(next));
+  }
+
+  /** Return the first bay from the given one with a lift still to call for the leg */
+  private int nextBay(int bay) {
+    BuildingConfig config = controller.getConfig();
+    for (; bay < lifts.size(); bay++) {
+      int index = liftAt(bay);
+      if (!config.serves(index, getLegStartFloor()) || !config.serves(index, getLegEndFloor()))
+        continue;
+      if (!config.isSyncLift(index))
+        return bay;
+      if (config.isDestinationDispatch() ? !destinationEntered :
+                                           !calledBanks.contains(config.getZone(index)))
+        return bay;
+    }
+    return bay;
+  }
+
+  /** Return the index of the lift met at the bay, counted from the appearing side */
+  private int liftAt(int bay) {
+    return appearSide == SIDE_LEFT ? bay : lifts.size() - 1 - bay;
+  }
+
+  /**
+   * Wait for the lift from now on, or walk in at once if it is already
+   * open here. A sync lift stands for the whole group, which shares
+   * its waiting people unless destinations are entered.
+   */
+  private void request(Lift lift) {
+    requestedLifts.add(lift);
+    if (lift.isSynchronized() && !controller.getConfig().isDestinationDispatch()) {
+      for (Lift syncLift : controller.getSyncLifts(lift)) {
+        if (isOpenHere(syncLift)) {
+          liftArrived(syncLift);
+          return;
+        }
+      }
+    } else if (isOpenHere(lift)) {
+      liftArrived(lift);
+      return;
+    }
+    lift.subscribe(getLegStartFloor(), getDirection(), this);
+  }
+
+  private boolean isOpenHere(Lift lift) {
+    return lift.isDoorOpened() &&
+           lift.getCurrentFloor() == getLegStartFloor() &&
+           lift.getDirection() == getDirection();
+  }
+
+  /** The doors of a requested lift are fully opened here, walk in */
+  void liftArrived(Lift lift) {
+    if (state != PersonState.ENTER && state != PersonState.WAITING)
+      return;
+
+    requestedLifts.forEach(l -> l.unsubscribe(getLegStartFloor(), getDirection(), this));
+    waitingTime += clock.now() - callTime;
+    chosenLift = lift;
+    chosenLift.addPassenger(this);
+    enterState(PersonState.WALK_IN, WALK_IN_TIME);
+    clock.schedule(phaseLength, () -> enterState(PersonState.MOVE_WITH_LIFT, 0L));
+  }
+
+  private void enterState(PersonState newState, long length) {
+    state = newState;
+    phaseStart = clock.now();
+    stateTimes[newState.ordinal()] = phaseStart;
+    phaseLength = length;
+    if (stateListener != null)
+      stateListener.run();
+  }
+
+  /** Get told whenever the person changes its state */
+  public void setStateListener(Runnable listener) {
+    this.stateListener = listener;
+  }
+}
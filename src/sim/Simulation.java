@@ -0,0 +1,227 @@
+package sim;
+
+import static constants.SimulationConstant.CONTROLLER_INTERVAL;
+import static constants.SimulationConstant.ONE_DAY;
+import static constants.SimulationConstant.SIDE_LEFT;
+import static constants.SimulationConstant.SIDE_RIGHT;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+
+/**
+ * The headless core of a building.
+ *
+ * It owns the lifts, the buttons and the people, and runs them all
+ * on one event clock. Nothing here needs a display, a view only has
+ * to listen for people coming and going and read the states.
+ */
+public class Simulation {
+
+  private final BuildingConfig config;
+  private final EventClock clock;
+  private List<Lift> lifts;
+  private ButtonPanel buttons;
+  private GroupController controller;
+  private Queue<Passenger> leavers; // people who have left since the last check
+
+  private int peopleCount;
+  private int peopleInside;
+  private int servedCount;
+  private Metrics metrics;
+  private TrafficProfile profile;
+  private long startTimeOfDay; // time of day the simulation starts at
+  private SplittableRandom random;
+  private FloorPair floorPair;
+  private EventRecorder recorder;
+  private EventLogReader replay; // recorded arrivals to use instead of FloorPair, if any
+  private TrafficListener listener;
+
+  public Simulation(BuildingConfig config) {
+    this(config, new ElevatorScheduler());
+  }
+
+  public Simulation(BuildingConfig config, DispatchStrategy scheduler) {
+    this(config, scheduler, new SplittableRandom().nextLong());
+  }
+
+  /** The same seed gives the same people and the same run */
+  public Simulation(BuildingConfig config, DispatchStrategy scheduler, long seed) {
+    this.config      = config;
+    this.random      = new SplittableRandom(seed);
+    this.floorPair   = new FloorPair(config, random.split());
+    this.clock       = new EventClock();
+    this.lifts       = new ArrayList<>();
+    this.leavers     = new ArrayDeque<>();
+    this.peopleCount = 0;
+    this.peopleInside = 0;
+    this.servedCount = 0;
+    this.initButtons();
+
+    List<String> liftIds = config.getLiftIds();
+    for (int i = 0; i < liftIds.size(); i++)
+      this.lifts.add(new Lift(liftIds.get(i), i, config.isSyncLift(i),
+                              floorPair.getRandomFloor(), config, clock, buttons));
+    this.controller = new GroupController(config, clock, scheduler, buttons, lifts);
+    this.metrics = new Metrics(config, lifts);
+    this.profile = TrafficProfile.forScenario(config);
+    this.startTimeOfDay = 0L;
+    this.recorder = EventRecorder.NONE;
+  }
+
+  /** Initialize elevator buttons, all indexed once for all */
+  private void initButtons() {
+    this.buttons = new ButtonPanel(config);
+  }
+
+  /** Start the lifts and the traffic */
+  public void start() {
+    boolean hasArrival = replay != null && placeReplayedLifts();
+    for (Lift lift : lifts)
+      recorder.liftStart(clock.now(), lift.getIndex(), lift.getCurrentFloor());
+
+    lifts.forEach(lift -> lift.start());
+    controller.start();
+    clock.schedulePeriodic(CONTROLLER_INTERVAL, () -> handleTraffic());
+    if (replay == null)
+      new ArrivalGenerator(profile, clock, random.split(), startTimeOfDay,
+                           () -> addPerson()).start();
+    else if (hasArrival)
+      scheduleReplayedArrival();
+  }
+
+  /** Tell the recorder about everything happening, call it before start */
+  public void setRecorder(EventRecorder recorder) {
+    this.recorder = recorder;
+    lifts.forEach(lift -> lift.setRecorder(recorder));
+    controller.setRecorder(recorder);
+  }
+
+  /** Let people arrive as recorded in the log instead of drawing them, call it before start */
+  public void replay(EventLogReader log) {
+    if (!log.matches(config))
+      throw new IllegalArgumentException("The log was recorded in another building");
+    this.replay = log;
+  }
+
+  /** Put the lifts where they stood in the log, return false if nobody arrives */
+  private boolean placeReplayedLifts() {
+    while (replay.next()) {
+      if (replay.isLiftStart())
+        lifts.get(replay.getLift()).reset(replay.getFloor());
+      else if (replay.isArrival())
+        return true;
+    }
+    return false;
+  }
+
+  /** Let the current arrival of the log happen at its time, then move to the next one */
+  private void scheduleReplayedArrival() {
+    clock.schedule(replay.getTime() - clock.now(), () -> {
+      addPerson(replay.getFloor(), replay.getEndFloor(), replay.getAppearSide());
+      while (replay.next()) {
+        if (replay.isArrival()) {
+          scheduleReplayedArrival();
+          return;
+        }
+      }
+    });
+  }
+
+  /** Start the day at another time than midnight, call it before start */
+  public void setStartTimeOfDay(long timeOfDay) {
+    this.startTimeOfDay = timeOfDay;
+  }
+
+  /** Run the simulation up to the given time, in milliseconds */
+  public void advanceTo(long time) {
+    clock.advanceTo(time);
+  }
+
+  /**
+   * Remove people who have left from the system. They queue up as they
+   * complete their life cycle, so this costs as much as the number of
+   * people leaving, however many are still inside.
+   */
+  private void handleTraffic() {
+    recorder.controlInterval(clock.now());
+    if (leavers.isEmpty())
+      return;
+
+    List<Passenger> left = new ArrayList<>(leavers.size());
+    for (Passenger p = leavers.poll(); p != null; p = leavers.poll()) {
+      metrics.personLeft(p);
+      left.add(p);
+    }
+    peopleInside -= left.size();
+    servedCount += left.size();
+    if (listener != null)
+      listener.peopleLeft(left);
+  }
+
+  /** Let a new person in, heading where people go at this time of day */
+  private void addPerson() {
+    long timeOfDay = getTimeOfDay();
+    int trip = floorPair.nextTrip(profile.getIncomingShare(timeOfDay),
+                                  profile.getInterfloorShare(timeOfDay));
+    addPerson(floorPair.getStartFloor(trip), floorPair.getEndFloor(trip),
+              random.nextBoolean() ? SIDE_LEFT : SIDE_RIGHT);
+  }
+
+  private void addPerson(int startFloor, int endFloor, int appearSide) {
+    recorder.arrival(clock.now(), startFloor, endFloor, appearSide);
+    Passenger newPerson = new Passenger(
+        ++peopleCount % 5 == 0 ? "#" + peopleCount : "",
+        startFloor, endFloor, appearSide, lifts, controller, clock, leavers);
+    peopleInside++;
+    if (listener != null)
+      listener.personArrived(newPerson);
+  }
+
+  public void setTrafficListener(TrafficListener listener) {
+    this.listener = listener;
+  }
+
+  public BuildingConfig getConfig() {
+    return this.config;
+  }
+
+  public long now() {
+    return clock.now();
+  }
+
+  /** Return the simulated time of day, midnight is zero */
+  public long getTimeOfDay() {
+    return (startTimeOfDay + clock.now()) % ONE_DAY;
+  }
+
+  public List<Lift> getLifts() {
+    return this.lifts;
+  }
+
+  public GroupController getController() {
+    return this.controller;
+  }
+
+  public TrafficProfile getProfile() {
+    return this.profile;
+  }
+
+  public Metrics getMetrics() {
+    return this.metrics;
+  }
+
+  public ButtonPanel getButtons() {
+    return this.buttons;
+  }
+
+  public int getPeopleInside() {
+    return this.peopleInside;
+  }
+
+  public int getServedCount() {
+    return this.servedCount;
+  }
+}
@@ -0,0 +1,108 @@
+package sim;
+
+import static constants.SimulationConstant.ONE_DAY;
+import static constants.SimulationConstant.REASSIGN_THRESHOLD;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Run a building without any display.
+ *
+ * Usage: java sim.Simulator [--record=FILE] [--replay=FILE]
+ *                           [scenario] [hours] [heuristic|eta|reassign|batch|destination|all] [seed]
+ *
+ * Without a strategy, the same building is run with each of them
+ * so that their waiting times can be compared. They all get the
+ * same seed, so the same people show up in every run.
+ *
+ * With --record every run writes its events to the file, suffixed by
+ * the strategy when there are several runs. With --replay the people
+ * arrive as recorded in the file instead of being drawn.
+ */
+public class Simulator {
+  private static final String[] STRATEGIES = {"heuristic", "eta", "reassign", "batch", "destination"};
+
+  public static void main(String[] arguments) {
+    String record = null;
+    String replay = null;
+    List<String> positional = new ArrayList<>();
+    for (String argument : arguments) {
+      if (argument.startsWith("--record="))
+        record = argument.substring("--record=".length());
+      else if (argument.startsWith("--replay="))
+        replay = argument.substring("--replay=".length());
+      else
+        positional.add(argument);
+    }
+    String[] args = positional.toArray(new String[0]);
+
+    int scenario = args.length > 0 ? Integer.parseInt(args[0]) : BuildingConfig.SCENARIO_RESIDENCE_I;
+    long duration = args.length > 1 ? Long.parseLong(args[1]) * ONE_DAY / 24 : ONE_DAY;
+    String strategy = args.length > 2 ? args[2] : "all";
+    long seed = args.length > 3 ? Long.parseLong(args[3]) : new SplittableRandom().nextLong();
+
+    System.out.println("Seed: " + seed);
+    for (String name : STRATEGIES) {
+      if (!strategy.equals("all") && !strategy.equals(name))
+        continue;
+
+      Simulation simulation = newSimulation(name, BuildingConfig.newConfig(scenario), seed);
+      Path recordFile = record == null ? null
+          : Paths.get(strategy.equals("all") ? record + "." + name : record);
+      try (EventLog log = recordFile == null ? null : new EventLog(recordFile, simulation.getConfig());
+           EventLogReader reader = replay == null ? null : new EventLogReader(Paths.get(replay))) {
+        if (log != null)
+          simulation.setRecorder(log);
+        if (reader != null)
+          simulation.replay(reader);
+        run(name, simulation, duration);
+        if (reader != null && reader.isTruncated())
+          System.out.println("The replayed log is cut short, people stopped arriving at its last whole record");
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /** Return a simulation of the building dispatched by the named strategy */
+  public static Simulation newSimulation(String strategy, BuildingConfig config, long seed) {
+    switch (strategy) {
+      case "heuristic":
+        return new Simulation(config, new ElevatorScheduler(), seed);
+      case "batch":
+        Simulation simulation = new Simulation(config, new EstimatedTimeScheduler(), seed);
+        simulation.getController().setBatchAssignment(true);
+        return simulation;
+      case "destination":
+        return new Simulation(config.withDestinationDispatch(true),
+                              new EstimatedTimeScheduler(), seed);
+      case "eta":
+        return new Simulation(config, new EstimatedTimeScheduler(), seed);
+      case "reassign":
+        Simulation reassigning = new Simulation(config, new EstimatedTimeScheduler(), seed);
+        reassigning.getController().setReassignThreshold(REASSIGN_THRESHOLD);
+        return reassigning;
+      default:
+        throw new IllegalArgumentException("Unknown strategy: " + strategy);
+    }
+  }
+
+  private static void run(String name, Simulation simulation, long duration) {
+    long startTime = System.currentTimeMillis();
+    simulation.start();
+    simulation.advanceTo(duration);
+    long elapsed = System.currentTimeMillis() - startTime;
+
+    System.out.println("[" + name + "] Simulated " + (duration / 1000) + " s in " + elapsed + " ms");
+    System.out.println("People served: " + simulation.getServedCount() +
+                       ", still inside: " + simulation.getPeopleInside());
+    simulation.getMetrics().dump(System.out);
+  }
+}
@@ -0,0 +1,281 @@
+package sim;
+
+import static constants.SimulationConstant.DOOR_CLOSE_TIME;
+import static constants.SimulationConstant.DOOR_HOLD_TIME;
+import static constants.SimulationConstant.DOOR_OPEN_TIME;
+import static constants.SimulationConstant.ONE_HOUR;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Run a grid of buildings on every core and compare them.
+ *
+ * Usage: java sim.Sweep [--scenario=1] [--hours=24] [--seeds=8] [--seed=N]
+ *                       [--floors=10,20] [--undergrounds=2] [--sync=2,4] [--async=1] [--banks=1,3]
+ *                       [--doors=1000/2000/1000,800/3000/800]
+ *                       [--strategies=heuristic,eta,reassign,batch,destination]
+ *
+ * Every option takes a list, and every combination of them is a cell.
+ * Each cell runs once per seed, every run is a simulation of its own
+ * on a fork/join pool. All cells get the same seeds, so they see the
+ * same draws, and the runs of a cell are merged into one row.
+ */
+public class Sweep {
+  private final List<Cell> cells;
+  private final long[] seeds;
+  private final long duration;
+
+  public Sweep(List<Cell> cells, long[] seeds, long duration) {
+    this.cells    = cells;
+    this.seeds    = seeds;
+    this.duration = duration;
+  }
+
+  public static void main(String[] args) {
+    int scenario   = BuildingConfig.SCENARIO_RESIDENCE_I;
+    long duration  = 24 * ONE_HOUR;
+    int seedCount  = 8;
+    long seed      = new SplittableRandom().nextLong();
+    int[] floors       = {10};
+    int[] undergrounds = {2};
+    int[] syncLifts    = {2};
+    int[] asyncLifts   = {1};
+    int[] banks        = {1};
+    long[][] doors     = {{DOOR_OPEN_TIME, DOOR_HOLD_TIME, DOOR_CLOSE_TIME}};
+    String[] strategies = {"heuristic", "eta", "reassign", "batch", "destination"};
+
+    for (String arg : args) {
+      int split = arg.indexOf('=');
+      if (!arg.startsWith("--") || split < 0)
+        throw new IllegalArgumentException("Unknown argument: " + arg);
+      String value = arg.substring(split + 1);
+      switch (arg.substring(2, split)) {
+        case "scenario":     scenario     = Integer.parseInt(value); break;
+        case "hours":        duration     = Long.parseLong(value) * ONE_HOUR; break;
+        case "seeds":        seedCount    = Integer.parseInt(value); break;
+        case "seed":         seed         = Long.parseLong(value); break;
+        case "floors":       floors       = parseInts(value); break;
+        case "undergrounds": undergrounds = parseInts(value); break;
+        case "sync":         syncLifts    = parseInts(value); break;
+        case "async":        asyncLifts   = parseInts(value); break;
+        case "banks":        banks        = parseInts(value); break;
+        case "doors":        doors        = parseDoors(value); break;
+        case "strategies":   strategies   = value.split(","); break;
+        default:
+          throw new IllegalArgumentException("Unknown argument: " + arg);
+      }
+    }
+
+    List<Cell> cells = new ArrayList<>();
+    for (int f : floors)
+      for (int u : undergrounds)
+        for (int s : syncLifts)
+          for (int a : asyncLifts)
+            for (int b : banks)
+              for (long[] d : doors)
+                for (String strategy : strategies)
+                  cells.add(new Cell(zoned(BuildingConfig.newConfig(f, u, s, a)
+                                                         .withScenario(scenario)
+                                                         .withDoorTimes(d[0], d[1], d[2]), b),
+                                     strategy));
+
+    SplittableRandom random = new SplittableRandom(seed);
+    long[] seeds = new long[seedCount];
+    for (int i = 0; i < seedCount; i++)
+      seeds[i] = random.nextLong();
+
+    System.out.println("Seed: " + seed + ", " + cells.size() + " cells x " +
+                       seedCount + " seeds on " +
+                       ForkJoinPool.commonPool().getParallelism() + " threads");
+    long startTime = System.currentTimeMillis();
+    List<Row> rows = new Sweep(cells, seeds, duration).run(ForkJoinPool.commonPool());
+    long elapsed = System.currentTimeMillis() - startTime;
+
+    print(System.out, rows);
+    System.out.println("Swept in " + elapsed + " ms");
+  }
+
+  /** Run every cell with every seed on the pool, return a row for each cell in order */
+  public List<Row> run(ForkJoinPool pool) {
+    check();
+    List<Row> rows = new ArrayList<>();
+    for (Cell cell : cells)
+      rows.add(new Row(cell));
+    pool.invoke(new RunTask(rows, 0, cells.size() * seeds.length));
+    return rows;
+  }
+
+  /** Set up every cell once before forking, so a cell which cannot run fails the sweep at once */
+  private void check() {
+    for (Cell cell : cells) {
+      BuildingConfig config = cell.getConfig();
+      try {
+        Simulator.newSimulation(cell.getStrategy(), config, 0L);
+      }
+      catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(
+            "Cannot run " + cell.getStrategy() + " on " + config.getFloors() + " floors, " +
+            config.getUndergrounds() + " underground: " + e.getMessage(), e);
+      }
+    }
+  }
+
+  /** Print one line per row, times in seconds */
+  public static void print(PrintStream out, List<Row> rows) {
+    out.printf("%6s %4s %4s %5s %5s %14s %-11s %4s %8s %7s %7s %7s %7s %7s%n",
+               "floors", "ug", "sync", "async", "banks", "doors", "strategy", "runs", "people",
+               "wait", "p95", "max", "journey", "p95");
+    for (Row row : rows) {
+      BuildingConfig config = row.getCell().getConfig();
+      out.printf("%6d %4d %4d %5d %5d %14s %-11s %4d %8d %7.1f %7.1f %7.1f %7.1f %7.1f%n",
+                 config.getFloors(),
+                 config.getUndergrounds(),
+                 config.getSyncLiftCount(),
+                 config.getLiftCount() - config.getSyncLiftCount(),
+                 countBanks(config),
+                 config.getDoorOpenTime() + "/" + config.getDoorHoldTime() + "/" +
+                 config.getDoorCloseTime(),
+                 row.getCell().getStrategy(),
+                 row.getRuns(),
+                 row.getServedCount(),
+                 row.getWaitTime().getMean() / 1000.0,
+                 row.getWaitTime().getPercentile(95) / 1000.0,
+                 row.getWaitTime().getMax() / 1000.0,
+                 row.getJourneyTime().getMean() / 1000.0,
+                 row.getJourneyTime().getPercentile(95) / 1000.0);
+    }
+  }
+
+  /** Return the building with its sync lifts split into banks, as it is for one bank */
+  private static BuildingConfig zoned(BuildingConfig config, int banks) {
+    return banks > 1 ? config.withBanks(banks) : config;
+  }
+
+  /** Count the zones holding sync lifts */
+  private static int countBanks(BuildingConfig config) {
+    int banks = 0;
+    for (Zone zone : config.getZones()) {
+      if (config.isSyncLift(zone.getFirstLift()))
+        banks++;
+    }
+    return banks;
+  }
+
+  private static int[] parseInts(String value) {
+    return Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+  }
+
+  /** Parse open/hold/close triples separated by commas */
+  private static long[][] parseDoors(String value) {
+    String[] triples = value.split(",");
+    long[][] doors = new long[triples.length][];
+    for (int i = 0; i < triples.length; i++) {
+      doors[i] = Arrays.stream(triples[i].split("/")).mapToLong(Long::parseLong).toArray();
+      if (doors[i].length != 3)
+        throw new IllegalArgumentException("Door times are open/hold/close: " + triples[i]);
+    }
+    return doors;
+  }
+
+  /** Split the runs in halves until one is left, then simulate it */
+  private class RunTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Row> rows;
+    private final int from; // first run, counted cell by cell then seed by seed
+    private final int to;   // one past the last run
+
+    RunTask(List<Row> rows, int from, int to) {
+      this.rows = rows;
+      this.from = from;
+      this.to   = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > 1) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new RunTask(rows, from, middle), new RunTask(rows, middle, to));
+        return;
+      }
+
+      Row row = rows.get(from / seeds.length);
+      Cell cell = row.getCell();
+      Simulation simulation = Simulator.newSimulation(
+          cell.getStrategy(), cell.getConfig(), seeds[from % seeds.length]);
+      simulation.start();
+      simulation.advanceTo(duration);
+      row.add(simulation);
+    }
+  }
+
+  /** A building and the strategy dispatching it */
+  public static class Cell {
+    private final BuildingConfig config;
+    private final String strategy;
+
+    public Cell(BuildingConfig config, String strategy) {
+      this.config   = config;
+      this.strategy = strategy;
+    }
+
+    public BuildingConfig getConfig() {
+      return this.config;
+    }
+
+    public String getStrategy() {
+      return this.strategy;
+    }
+  }
+
+  /** Metrics of all runs of a cell, merged as the runs finish on any thread */
+  public static class Row {
+    private final Cell cell;
+    private final Histogram waitTime;
+    private final Histogram journeyTime;
+    private final AtomicLong runs;
+    private final AtomicLong servedCount;
+
+    Row(Cell cell) {
+      this.cell        = cell;
+      this.waitTime    = new Histogram();
+      this.journeyTime = new Histogram();
+      this.runs        = new AtomicLong();
+      this.servedCount = new AtomicLong();
+    }
+
+    void add(Simulation simulation) {
+      waitTime.add(simulation.getMetrics().getWaitTime());
+      journeyTime.add(simulation.getMetrics().getJourneyTime());
+      servedCount.addAndGet(simulation.getServedCount());
+      runs.incrementAndGet();
+    }
+
+    public Cell getCell() {
+      return this.cell;
+    }
+
+    public Histogram getWaitTime() {
+      return this.waitTime;
+    }
+
+    public Histogram getJourneyTime() {
+      return this.journeyTime;
+    }
+
+    public long getRuns() {
+      return this.runs.get();
+    }
+
+    public long getServedCount() {
+      return this.servedCount.get();
+    }
+  }
+}
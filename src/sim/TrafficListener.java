@@ -0,0 +1,15 @@
+package sim;
+
+import java.util.List;
+
+/**
+ * Get told when people come into or leave the building,
+ * a view uses it to add or remove their drawings.
+ */
+public interface TrafficListener {
+
+  void personArrived(Passenger person);
+
+  /** People who have left since the last call, in the order they left */
+  void peopleLeft(List<Passenger> people);
+}
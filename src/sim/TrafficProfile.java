@@ -0,0 +1,182 @@
+package sim;
+
+import static constants.SimulationConstant.ONE_DAY;
+import static constants.SimulationConstant.ONE_HOUR;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * How many people show up during a day, and where they are heading.
+ *
+ * The demand is given for every hour and interpolated in between,
+ * short bursts such as class changes come on top of it. Trips are
+ * incoming (from the ground floor up), outgoing (down to the ground
+ * floor) or interfloor (between two other floors).
+ *
+ * Rates are given for a building of 10 floors and scaled by floors.
+ * Time of day zero is midnight.
+ */
+public class TrafficProfile {
+  private static final double REFERENCE_FLOORS = 10.0;
+
+  private final double[] rates;      // people per hour, at the start of each hour
+  private final double[] incoming;   // share of incoming trips, at the start of each hour
+  private final double[] interfloor; // share of interfloor trips, at the start of each hour
+  private final List<Burst> bursts;
+  private final double peakRate;
+
+  private TrafficProfile(double[] rates,
+                         double[] incoming,
+                         double[] interfloor,
+                         List<Burst> bursts,
+                         double scale) {
+    this.rates      = new double[24];
+    this.incoming   = incoming;
+    this.interfloor = interfloor;
+    this.bursts     = Collections.unmodifiableList(bursts);
+
+    // Interpolated rates never exceed the hourly ones, bursts may overlap
+    double peak = 0.0;
+    for (int hour = 0; hour < 24; hour++) {
+      this.rates[hour] = rates[hour] * scale;
+      peak = Math.max(peak, this.rates[hour]);
+    }
+    for (Burst burst : bursts)
+      peak += burst.rate;
+    this.peakRate = peak;
+  }
+
+  /** Return the daily demand of the scenario, scaled to the building */
+  public static TrafficProfile forScenario(BuildingConfig config) {
+    double scale = config.getFloors() / REFERENCE_FLOORS;
+    switch (config.getScenario()) {
+      case BuildingConfig.SCENARIO_RESIDENCE_II:
+        // Shift workers and students: later start, long evening
+        return new TrafficProfile(
+            new double[] { 80,  50,  30,  20,  20,  40, 120, 400, 500, 400, 300, 300,
+                          350, 300, 250, 250, 350, 500, 650, 700, 650, 500, 300, 150},
+            new double[] {.70, .70, .60, .50, .50, .30, .15, .10, .15, .30, .40, .45,
+                          .50, .50, .50, .55, .65, .75, .80, .80, .80, .80, .75, .70},
+            flat(.10), new ArrayList<>(), scale);
+
+      case BuildingConfig.SCENARIO_COMMERCIAL:
+        // Morning up-peak, two-way lunch, evening down-peak
+        return new TrafficProfile(
+            new double[] { 10,   5,   5,   5,   5,  10,  50,  600, 1500, 700, 400, 500,
+                         1100, 1000, 400, 350, 500, 1200, 700, 200,  80,  40,  20,  10},
+            new double[] {.50, .50, .50, .50, .50, .70, .85, .85, .85, .60, .40, .40,
+                          .35, .55, .45, .40, .30, .10, .10, .15, .30, .40, .50, .50},
+            new double[] {.05, .05, .05, .05, .05, .05, .05, .05, .05, .20, .30, .30,
+                          .15, .15, .30, .30, .20, .05, .05, .10, .10, .05, .05, .05},
+            new ArrayList<>(), scale);
+
+      case BuildingConfig.SCENARIO_ACADEMIC:
+        // Lectures on every floor, everyone moves in the ten minutes before the hour
+        List<Burst> classChanges = new ArrayList<>();
+        classChanges.add(new Burst(8, 17, 50, 10, 1500 * scale, .15, .70));
+        return new TrafficProfile(
+            new double[] {  5,   5,   5,   5,   5,   5,  20, 200, 500, 400, 400, 400,
+                          500, 400, 400, 400, 300, 200, 150, 100,  50,  20,  10,   5},
+            new double[] {.50, .50, .50, .50, .50, .60, .80, .80, .70, .40, .30, .30,
+                          .30, .30, .30, .25, .20, .15, .15, .20, .30, .40, .50, .50},
+            new double[] {.05, .05, .05, .05, .05, .05, .10, .20, .30, .50, .50, .50,
+                          .40, .50, .50, .50, .40, .20, .10, .05, .05, .05, .05, .05},
+            classChanges, scale);
+
+      case BuildingConfig.SCENARIO_RESIDENCE_I:
+      default:
+        // Families: leave in the morning, come back in the evening
+        return new TrafficProfile(
+            new double[] { 40,  20,  15,  10,  10,  30, 150, 700, 900, 400, 200, 200,
+                          250, 250, 200, 200, 300, 600, 800, 600, 400, 250, 150,  80},
+            new double[] {.60, .60, .50, .50, .50, .20, .10, .10, .10, .30, .45, .50,
+                          .50, .50, .50, .50, .60, .80, .85, .80, .70, .70, .70, .65},
+            flat(.05), new ArrayList<>(), scale);
+    }
+  }
+
+  private static double[] flat(double share) {
+    double[] shares = new double[24];
+    for (int hour = 0; hour < 24; hour++)
+      shares[hour] = share;
+    return shares;
+  }
+
+  /** Return the arrival rate at the time of day, in people per hour */
+  public double getRate(long timeOfDay) {
+    double rate = interpolate(rates, timeOfDay);
+    for (Burst burst : bursts) {
+      if (burst.isActive(timeOfDay))
+        rate += burst.rate;
+    }
+    return rate;
+  }
+
+  /** Return the highest rate of the day, in people per hour */
+  public double getPeakRate() {
+    return this.peakRate;
+  }
+
+  /** Return the share of incoming trips at the time of day */
+  public double getIncomingShare(long timeOfDay) {
+    return blend(incoming, timeOfDay, true);
+  }
+
+  /** Return the share of interfloor trips at the time of day */
+  public double getInterfloorShare(long timeOfDay) {
+    return blend(interfloor, timeOfDay, false);
+  }
+
+  /** Mix the shares of the base demand and the active bursts by their rates */
+  private double blend(double[] shares, long timeOfDay, boolean isIncoming) {
+    double rate  = interpolate(rates, timeOfDay);
+    double total = rate;
+    double share = interpolate(shares, timeOfDay) * rate;
+    for (Burst burst : bursts) {
+      if (burst.isActive(timeOfDay)) {
+        total += burst.rate;
+        share += (isIncoming ? burst.incoming : burst.interfloor) * burst.rate;
+      }
+    }
+    return total > 0 ? share / total : interpolate(shares, timeOfDay);
+  }
+
+  private static double interpolate(double[] hourly, long timeOfDay) {
+    double hours = Math.floorMod(timeOfDay, ONE_DAY) / (double) ONE_HOUR;
+    int hour = (int) hours;
+    double fraction = hours - hour;
+    return hourly[hour] + (hourly[(hour + 1) % 24] - hourly[hour]) * fraction;
+  }
+
+  /** Extra people for a few minutes of every hour within a range of hours */
+  private static class Burst {
+    private final int firstHour;
+    private final int lastHour;
+    private final int startMinute;
+    private final int minutes;
+    private final double incoming;
+    private final double interfloor;
+    private final double rate; // extra people per hour while active
+
+    Burst(int firstHour, int lastHour, int startMinute, int minutes,
+          double rate, double incoming, double interfloor) {
+      this.firstHour   = firstHour;
+      this.lastHour    = lastHour;
+      this.startMinute = startMinute;
+      this.minutes     = minutes;
+      this.rate        = rate;
+      this.incoming    = incoming;
+      this.interfloor  = interfloor;
+    }
+
+    boolean isActive(long timeOfDay) {
+      long minuteOfDay = Math.floorMod(timeOfDay, ONE_DAY) / (ONE_HOUR / 60);
+      int hour = (int) (minuteOfDay / 60);
+      int minute = (int) (minuteOfDay % 60);
+      return hour >= firstHour && hour <= lastHour &&
+             minute >= startMinute && minute < startMinute + minutes;
+    }
+  }
+}
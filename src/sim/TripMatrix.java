@@ -0,0 +1,70 @@
+package sim;
+
+/**
+ * How often people travel between each two floors of a building.
+ *
+ * Trips come in three kinds, each with its own origin-destination
+ * matrix indexed by [start level][end level]: incoming from the
+ * ground floor, outgoing to it, and interfloor. Only the ratios
+ * within a matrix matter, the mix of the kinds follows the hour.
+ * An interfloor matrix of zeros turns interfloor trips outgoing.
+ */
+public class TripMatrix {
+
+  private final double[][] incoming;
+  private final double[][] outgoing;
+  private final double[][] interfloor;
+
+  public TripMatrix(double[][] incoming, double[][] outgoing, double[][] interfloor) {
+    this.incoming   = copy(incoming, incoming.length);
+    this.outgoing   = copy(outgoing, incoming.length);
+    this.interfloor = copy(interfloor, incoming.length);
+    if (isEmpty(this.incoming) || isEmpty(this.outgoing))
+      throw new IllegalArgumentException("Trip matrices need some incoming and some outgoing trips");
+  }
+
+  /** Return the number of floors the matrices are made for */
+  public int getFloors() {
+    return this.incoming.length;
+  }
+
+  double[][] getIncoming() {
+    return this.incoming;
+  }
+
+  double[][] getOutgoing() {
+    return this.outgoing;
+  }
+
+  double[][] getInterfloor() {
+    return this.interfloor;
+  }
+
+  static boolean isEmpty(double[][] weights) {
+    for (double[] row : weights) {
+      for (double weight : row) {
+        if (weight > 0)
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /** Copy a square matrix of the given size, so the caller cannot change it later */
+  private static double[][] copy(double[][] weights, int floors) {
+    if (weights.length != floors)
+      throw new IllegalArgumentException("Trip matrices need " + floors + " rows");
+
+    double[][] copied = new double[floors][];
+    for (int i = 0; i < floors; i++) {
+      if (weights[i].length != floors)
+        throw new IllegalArgumentException("Trip matrices need " + floors + " columns");
+      for (double weight : weights[i]) {
+        if (!(weight >= 0))
+          throw new IllegalArgumentException("Trip weights cannot be negative");
+      }
+      copied[i] = weights[i].clone();
+    }
+    return copied;
+  }
+}
@@ -0,0 +1,109 @@
+package sim;
+
+import java.util.Arrays;
+
+/**
+ * A bank of lifts serving only some floors of the building.
+ *
+ * The lifts of a bank stand next to each other and serve a run of
+ * floors plus a few lobbies outside of it. Between a lobby and the
+ * run they travel express, without any floor to stop at. People who
+ * cannot reach their floor with one bank change lifts at a floor two
+ * banks share, such as the main lobby or a sky lobby.
+ */
+public class Zone {
+
+  private final String name;
+  private final int firstLift; // index of its leftmost lift
+  private final int liftCount; // lifts in the bank
+  private final int lowFloor;  // lowest floor of the run
+  private final int highFloor; // highest floor of the run
+  private final int[] lobbies; // floors served outside of the run
+
+  public Zone(String name, int firstLift, int liftCount,
+              int lowFloor, int highFloor, int... lobbies) {
+    if (liftCount < 1 || lowFloor > highFloor)
+      throw new IllegalArgumentException("Empty zone: " + name);
+
+    this.name      = name;
+    this.firstLift = firstLift;
+    this.liftCount = liftCount;
+    this.lowFloor  = lowFloor;
+    this.highFloor = highFloor;
+    this.lobbies   = lobbies.clone();
+    Arrays.sort(this.lobbies);
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  public int getFirstLift() {
+    return this.firstLift;
+  }
+
+  public int getLiftCount() {
+    return this.liftCount;
+  }
+
+  public int getLowFloor() {
+    return this.lowFloor;
+  }
+
+  public int getHighFloor() {
+    return this.highFloor;
+  }
+
+  /** Indicate if the lift of the given index belongs to this bank */
+  public boolean hasLift(int index) {
+    return index >= firstLift && index < firstLift + liftCount;
+  }
+
+  /** Indicate if the lifts of this bank stop at the floor */
+  public boolean serves(int floor) {
+    if (floor >= lowFloor && floor <= highFloor)
+      return true;
+    return Arrays.binarySearch(lobbies, floor) >= 0;
+  }
+
+  /** Return the lowest floor the lifts stop at */
+  public int getBottomFloor() {
+    return lobbies.length > 0 ? Math.min(lobbies[0], lowFloor) : lowFloor;
+  }
+
+  /** Return the highest floor the lifts stop at */
+  public int getTopFloor() {
+    return lobbies.length > 0 ? Math.max(lobbies[lobbies.length - 1], highFloor) : highFloor;
+  }
+
+  /** Return the floor both banks serve closest to the given one, 0 if there is none */
+  public int getTransferFloor(Zone other, int near) {
+    int best = 0;
+    // Where the runs overlap, the overlap floor closest to the given one
+    int low  = Math.max(lowFloor, other.lowFloor);
+    int high = Math.min(highFloor, other.highFloor);
+    if (low <= high)
+      best = Math.max(low, Math.min(high, near));
+
+    for (int lobby : lobbies) {
+      if (other.serves(lobby))
+        best = closer(best, lobby, near);
+    }
+    for (int lobby : other.lobbies) {
+      if (serves(lobby))
+        best = closer(best, lobby, near);
+    }
+    return best;
+  }
+
+  private static int closer(int best, int floor, int near) {
+    if (best == 0 || Math.abs(floor - near) < Math.abs(best - near))
+      return floor;
+    return best;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}